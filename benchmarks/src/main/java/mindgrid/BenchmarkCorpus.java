@@ -0,0 +1,92 @@
+package mindgrid;
+
+// Fixed puzzles used by the benchmarks, so every run checks the same grids. Each puzzle is 81
+// digits with 0 for empty cells, and each has exactly one solution.
+final class BenchmarkCorpus {
+    // Puzzles with 40 hints that singles alone solve
+    static final String[] EASY = {
+            "000015060005004809700009310290503600070000050543096007980200036102000590450938072",
+            "803201040071600803605803070038002450467500310050000086300000524709056000004300700",
+            "020063405903010820010000060008049156000000739359070200004030591600154070001790040",
+            "100738900030054162050062708021890000590400080007000010219000400306509800480270300",
+            "708250000050934060034708250600000005305406002100503679870005023520309100400000090",
+            "148720005729005040060048000000030050632004807957086400800400000074650980506071000",
+            "603500000507120600100600597006010040219408370700030861000009002058200736000350908",
+            "913072400872000900465003872109048050040090320008006104094000500701050200020009700",
+    };
+
+    // Puzzles with 24 hints that the logical techniques of the grader cannot finish
+    static final String[] HARD = {
+            "630508040000040000047000500010000002002063080800200069000082000053000000000006000",
+            "900070002000030010000006800000008020047001600500060190004050003700000069003000000",
+            "000380100080045007100000089070010400000006093903800020000000000006050070000700000",
+            "000490000000000001207030090305004070009700000600000302000009008903002600060005000",
+            "941000000000036900700001000000200000000090008260503000007405003080060010000009500",
+            "800100040100640009003070000700001000060000020030090706006720004010000090000008000",
+            "000701900050006008000420000084107000095000000100080200040200003002000100000000590",
+            "007513000000000900040007010070060000000002735300000200090000004100086000804000060",
+    };
+
+    // Puzzles with 17 hints, the fewest a 9x9 puzzle with one solution can have
+    static final String[] SEVENTEEN_CLUE = {
+            "000000010400000000020000000000050407008000300001090000300400200050100000000806000",
+            "000000010400000000020000000000050604008000300001090000300400200050100000000807000",
+            "000000012000035000000600070700000300000400800100000000000120000080000040050000600",
+            "000000012003600000000007000410020000000500300700000600280000040000300500000000000",
+            "000000012008030000000000040120500000000004700060000000507000300000620000000100000",
+            "000000012040050000000009000070600400000100000000000050000087500601000300200000000",
+            "000000012050400000000000030700600400001000000000080000920000800000510700000003000",
+            "000000012300000060000040000900000500000001070020000000000350400001400800060000000",
+    };
+
+    static final int SIZE = 8; // Number of puzzles in each set
+
+    private BenchmarkCorpus() {
+    }
+
+    // Method to get the puzzles of a set by name
+    static int[][][] load(String name) {
+        String[] puzzles;
+        switch (name) {
+            case "easy":
+                puzzles = EASY;
+                break;
+            case "hard":
+                puzzles = HARD;
+                break;
+            case "17-clue":
+                puzzles = SEVENTEEN_CLUE;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown corpus " + name);
+        }
+        int[][][] grids = new int[puzzles.length][][];
+        for (int i = 0; i < puzzles.length; i++) {
+            grids[i] = parse(puzzles[i]);
+        }
+        return grids;
+    }
+
+    // Method to turn 81 digits into a grid
+    static int[][] parse(String digits) {
+        int[][] grid = new int[9][9];
+        for (int cell = 0; cell < 81; cell++) {
+            grid[cell / 9][cell % 9] = digits.charAt(cell) - '0';
+        }
+        return grid;
+    }
+
+    // Method to create the solver engine with the given name
+    static SudokuSolver solver(String engine) {
+        switch (engine) {
+            case "bitmask":
+                return new BitmaskSolver();
+            case "dancing-links":
+                return new DancingLinksSolver();
+            case "parallel":
+                return new ParallelSolutionCounter();
+            default:
+                throw new IllegalArgumentException("Unknown engine " + engine);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package mindgrid;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Benchmark of filling an empty grid with a random solution
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FillGridBenchmark {
+    @Param({"bitmask", "dancing-links"})
+    public String engine;
+
+    private PuzzleGenerator generator;
+    private final Board grid = new Board(3); // Filled again by every call, as in the generator
+
+    // Method to create a generator on the chosen engine with a fixed seed
+    @Setup
+    public void setUp() {
+        generator = new PuzzleGenerator(BenchmarkCorpus.solver(engine));
+        generator.setRandom(new Random(42));
+    }
+
+    @Benchmark
+    public Board fillGrid() {
+        generator.fillGrid(grid);
+        return grid;
+    }
+}
@@ -0,0 +1,41 @@
+package mindgrid;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Benchmark of generating whole puzzles at the app's hint counts and below. Random removal only
+// finds unique puzzles at high hint counts, so it is measured by RandomRemovalBenchmark.
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GeneratorBenchmark {
+    @Param({"40", "30", "24"})
+    public int hints;
+
+    private PuzzleGenerator generator;
+
+    // Method to create a generator with a fixed seed, so every run generates the same puzzles
+    @Setup
+    public void setUp() {
+        generator = new PuzzleGenerator();
+        generator.setRandom(new Random(42));
+        generator.setGenerationMode(PuzzleGenerator.GenerationMode.INCREMENTAL_DIG);
+    }
+
+    @Benchmark
+    public int[][] generatePuzzle() {
+        return generator.generatePuzzle(hints);
+    }
+}
@@ -0,0 +1,72 @@
+package mindgrid;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Benchmark of saving and loading the state of a game in progress, as the puzzle window does
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SaveLoadBenchmark {
+    private Path directory;
+    private Path file;
+    private SavedGame game;
+
+    // Method to create a half-solved game and write it once, so load has a file to read
+    @Setup
+    public void setUp() throws IOException {
+        PuzzleGenerator generator = new PuzzleGenerator();
+        generator.setRandom(new Random(42));
+        int[][] puzzle = generator.generatePuzzle(30);
+        int[][] solution = generator.getSolution();
+        int[][] entries = new int[9][9];
+        for (int cell = 0; cell < 81; cell += 2) {
+            if (puzzle[cell / 9][cell % 9] == 0) {
+                entries[cell / 9][cell % 9] = solution[cell / 9][cell % 9];
+            }
+        }
+        game = new SavedGame(puzzle, solution, entries, 754, true, Color.WHITE);
+        directory = Files.createTempDirectory("mindgrid-bench");
+        file = directory.resolve("game.sav");
+        game.writeTo(file);
+    }
+
+    // Method to delete the save file and its directory
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        game.writeTo(file);
+    }
+
+    @Benchmark
+    public SavedGame load() throws IOException {
+        return SavedGame.readFrom(file);
+    }
+
+    @Benchmark
+    public SavedGame roundTrip() throws IOException {
+        game.writeTo(file);
+        return SavedGame.readFrom(file);
+    }
+}
@@ -0,0 +1,55 @@
+package mindgrid;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Benchmark of the uniqueness check on fixed sets of easy, hard and 17-clue puzzles.
+// One operation is one check; every invocation checks each puzzle of the set once.
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UniquenessBenchmark {
+    @Param({"easy", "hard", "17-clue"})
+    public String corpus;
+
+    @Param({"bitmask", "dancing-links", "parallel"})
+    public String engine;
+
+    private PuzzleGenerator generator;
+    private Board[] puzzles;
+
+    // Method to load the puzzle set and create a generator on the chosen engine
+    @Setup
+    public void setUp() {
+        generator = new PuzzleGenerator(BenchmarkCorpus.solver(engine));
+        int[][][] grids = BenchmarkCorpus.load(corpus);
+        puzzles = new Board[grids.length];
+        for (int i = 0; i < grids.length; i++) {
+            puzzles[i] = Board.of(grids[i]);
+            if (!generator.hasUniqueSolution(puzzles[i])) {
+                throw new IllegalStateException("Benchmark puzzle without a unique solution");
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkCorpus.SIZE)
+    public void hasUniqueSolution(Blackhole blackhole) {
+        for (Board puzzle : puzzles) {
+            blackhole.consume(generator.hasUniqueSolution(puzzle));
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package mindgrid;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Headless batch mode that generates puzzles on all cores and streams them to a file.
+// In text format every puzzle is written as one line: the 81 cells of the puzzle ('.' for
+// empty cells), a comma, the 81 cells of the solution, a comma and the grade of the puzzle.
+// In library format the puzzles are packed into a PuzzleLibrary file, one section per grade.
+// With --transforms N every generated puzzle is followed by N random symmetry transforms of it,
+// which cost microseconds instead of a full generation and keep the grade of the original.
+// With --dedupe on a puzzle is dropped and generated again if it is the same up to symmetry as
+// one already written, which is checked against an off-heap index of canonical fingerprints.
+// Some grades are rare or never turn up at a given hint count, so a puzzle that is still not of
+// the requested grade (or still a duplicate) after --max-attempts generations fails the batch.
+// Throughput, latency percentiles and the number of puzzles of each grade are printed while
+// the batch runs, and the final report names the seed of the slowest puzzle.
+//
+// Workers take groups of puzzles (a generated puzzle and its transforms) by index, and every
+// group draws from its own SplittableRandom stream derived from --seed and the group index.
+// Which worker takes a group therefore does not matter: the same seed gives the same set of
+// puzzles for any number of threads, and with one thread also the same order. Only --dedupe
+// depends on timing, since which of two duplicates is kept depends on which is found first.
+public class BatchGenerator {
+    private static final int GRID_SIZE = 9;
+    private static final int GRID_LENGTH = GRID_SIZE * GRID_SIZE; // Characters of a grid in a line
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+    private static final int QUEUE_CAPACITY = 4096; // Lines waiting for the writer before workers block
+    private static final byte[] END_OF_BATCH = new byte[0]; // Tells the writer that all workers are done
+    private static final String USAGE = "Usage: batch --count N (--hints N | --difficulty easy|hard) "
+            + "[--grade easy|medium|hard|expert|extreme] [--threads N] [--seed N] [--out FILE] [--format text|library] "
+            + "[--transforms N] [--dedupe on|off] [--max-attempts N] [--report-seconds N]";
+    private static final int DEFAULT_MAX_ATTEMPTS = 100_000; // Expert puzzles at 40 hints are rarer than 1 in 5000
+
+    private final long count; // Number of puzzles to generate
+    private final int hints; // Number of hints in every puzzle
+    private final Difficulty grade; // Only puzzles of this grade are kept, or null to keep all
+    private final int threads; // Number of generator threads
+    private final long seed; // Seed the streams of all puzzle groups are derived from
+    private final Path output; // File the puzzles are written to
+    private final boolean library; // Whether to write a packed library instead of text lines
+    private final int transforms; // Transformed variants written after each generated puzzle
+    private final int maxAttempts; // Generations allowed per kept puzzle before the batch fails
+    private final FingerprintIndex written; // Canonical fingerprints of the puzzles so far, or null to keep duplicates
+    private final int reportSeconds; // Interval between progress reports
+
+    private final AtomicLong issued = new AtomicLong(); // Puzzle groups handed out to workers
+    private final AtomicLong completed = new AtomicLong(); // Puzzles generated so far
+    private final AtomicLong duplicates = new AtomicLong(); // Puzzles dropped as duplicates
+    private final LatencyHistogram latencies = new LatencyHistogram(); // Generation time per puzzle
+    private final AtomicLongArray gradeCounts = new AtomicLongArray(Difficulty.values().length); // Puzzles of each grade
+    private final BlockingQueue<byte[]> lines = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private volatile IOException writeError; // Set if the writer failed
+    private volatile Throwable workerError; // Set if a worker failed
+    private long slowestNanos; // Longest time a single generatePuzzle call took, guarded by this
+    private long slowestSeed; // Seed of that puzzle, guarded by this
+
+    // Constructor to set up a batch run
+    public BatchGenerator(long count, int hints, Difficulty grade, int threads, long seed, Path output, boolean library,
+                          int transforms, boolean dedupe, int maxAttempts, int reportSeconds) {
+        this.count = count;
+        this.hints = hints;
+        this.grade = grade;
+        this.threads = threads;
+        this.seed = seed;
+        this.output = output;
+        this.library = library;
+        this.transforms = transforms;
+        this.maxAttempts = maxAttempts;
+        this.written = dedupe ? new FingerprintIndex(count) : null;
+        this.reportSeconds = reportSeconds;
+    }
+
+    // Entry point for the batch mode; see USAGE for the arguments
+    public static void main(String[] args) {
+        BatchGenerator batch;
+        try {
+            batch = fromArguments(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        try {
+            batch.run();
+        } catch (IOException | InterruptedException | IllegalStateException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    // Method to parse the command-line arguments
+    static BatchGenerator fromArguments(String[] args) {
+        long count = -1;
+        int hints = -1;
+        Difficulty grade = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = System.nanoTime();
+        Path output = Paths.get("puzzles.txt");
+        boolean library = false;
+        int transforms = 0;
+        boolean dedupe = false;
+        int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+        int reportSeconds = 5;
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            String value = args[++i];
+            try {
+                switch (option) {
+                    case "--count":
+                        count = Long.parseLong(value);
+                        break;
+                    case "--hints":
+                        hints = Integer.parseInt(value);
+                        break;
+                    case "--difficulty":
+                        hints = hintsForDifficulty(value);
+                        break;
+                    case "--grade":
+                        grade = Difficulty.parse(value);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    case "--out":
+                        output = Paths.get(value);
+                        break;
+                    case "--format":
+                        if (!value.equals("text") && !value.equals("library")) {
+                            throw new IllegalArgumentException("Unknown format " + value);
+                        }
+                        library = value.equals("library");
+                        break;
+                    case "--transforms":
+                        transforms = Integer.parseInt(value);
+                        break;
+                    case "--dedupe":
+                        if (!value.equals("on") && !value.equals("off")) {
+                            throw new IllegalArgumentException("Expected on or off for --dedupe: " + value);
+                        }
+                        dedupe = value.equals("on");
+                        break;
+                    case "--max-attempts":
+                        maxAttempts = Integer.parseInt(value);
+                        break;
+                    case "--report-seconds":
+                        reportSeconds = Integer.parseInt(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + option);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid number for " + option + ": " + value);
+            }
+        }
+        if (count < 1 || hints < 0 || threads < 1 || transforms < 0 || maxAttempts < 1 || reportSeconds < 1) {
+            throw new IllegalArgumentException("A positive count, a hint target and a positive thread count are required");
+        }
+        if (hints < PuzzleGenerator.MIN_HINTS_9X9 || hints > GRID_LENGTH) {
+            throw new IllegalArgumentException("Hints must be between " + PuzzleGenerator.MIN_HINTS_9X9 + " and " + GRID_LENGTH + ": " + hints);
+        }
+        if (dedupe && transforms > 0) {
+            throw new IllegalArgumentException("Transforms are duplicates up to symmetry, so --dedupe would drop all of them");
+        }
+        return new BatchGenerator(count, hints, grade, threads, seed, output, library, transforms, dedupe, maxAttempts, reportSeconds);
+    }
+
+    // Method to map a difficulty name to its number of hints
+    static int hintsForDifficulty(String difficulty) {
+        switch (difficulty.toLowerCase()) {
+            case "easy":
+                return SudokuApp.EASY_HINTS;
+            case "hard":
+                return SudokuApp.HARD_HINTS;
+            default:
+                throw new IllegalArgumentException("Unknown difficulty " + difficulty);
+        }
+    }
+
+    // Method to generate the whole batch and wait until everything is written
+    public void run() throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(this::work, "batch-worker-" + (i + 1));
+            workers[i].start();
+        }
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "batch-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> report(start), reportSeconds, reportSeconds, TimeUnit.SECONDS);
+
+        Thread writer = new Thread(() -> {
+            try {
+                writeLoop();
+            } catch (IOException e) {
+                writeError = e;
+                discardLines(); // Keep the workers from blocking on a full queue
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "batch-writer");
+        writer.start();
+
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        lines.put(END_OF_BATCH);
+        writer.join();
+        reporter.shutdownNow();
+        if (writeError != null) {
+            throw writeError;
+        }
+        if (workerError != null) {
+            throw new IllegalStateException("Puzzle generation failed", workerError);
+        }
+        report(start); // Final summary
+        synchronized (this) {
+            System.out.printf("Slowest puzzle: seed %d, %.2f ms (PuzzleGenerator.generatePuzzle(%d, seed))%n",
+                    slowestSeed, slowestNanos / 1e6, hints);
+        }
+    }
+
+    // Method to drop the remaining lines after the writer failed
+    private void discardLines() {
+        try {
+            while (lines.take() != END_OF_BATCH) {
+                // Nothing to do
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Method run by each worker thread: generate puzzles, remembering the failure if the worker dies
+    private void work() {
+        try {
+            generateLoop();
+        } catch (RuntimeException | Error e) {
+            workerError = e; // The other workers stop at their next group and run() rethrows it
+        }
+    }
+
+    // Method run by each worker: generate groups of puzzles until the batch is complete
+    private void generateLoop() {
+        PuzzleGenerator generator = new PuzzleGenerator(); // Generators are not thread-safe, so each worker has its own
+        PuzzleTransformer transformer = new PuzzleTransformer(new SplittableRandom());
+        CanonicalForm canonicalForm = new CanonicalForm(); // Used only when dropping duplicates
+        Puzzle seed = null; // Generated puzzle of the current group
+        Difficulty difficulty = null; // Grade of the generated puzzle, shared by its variants
+        Board variant = new Board(3); // Reused for every variant, so transforms allocate nothing
+        Board variantSolution = new Board(3);
+        long groupSize = transforms + 1L;
+        long group;
+        byte[] line;
+        while (workerError == null && (group = issued.getAndIncrement()) < (count + groupSize - 1) / groupSize) {
+            SplittableRandom stream = groupStream(group);
+            transformer.setRandom(stream);
+            long end = Math.min(count, (group + 1) * groupSize);
+            for (long index = group * groupSize; index < end; index++) {
+                long begin = System.nanoTime();
+                Board puzzle;
+                Board solution;
+                if (index == group * groupSize) {
+                    seed = generate(generator, stream.nextLong()); // Graded inline by the generator
+                    int attempts = 1;
+                    while ((grade != null && seed.getDifficulty() != grade) || isDuplicate(canonicalForm, seed.getBoard())) {
+                        if (attempts++ == maxAttempts) {
+                            throw new IllegalStateException("No new " + (grade != null ? grade + " " : "") + "puzzle with "
+                                    + hints + " hints in " + maxAttempts + " attempts; try another hint count or raise --max-attempts");
+                        }
+                        seed = generate(generator, stream.nextLong()); // Not the requested grade or seen before, try another one
+                    }
+                    puzzle = seed.getBoard();
+                    solution = seed.getSolutionBoard();
+                    difficulty = seed.getDifficulty();
+                } else {
+                    transformer.transform(seed.getBoard(), seed.getSolutionBoard(), variant, variantSolution); // Same grade, no solver needed
+                    puzzle = variant;
+                    solution = variantSolution;
+                }
+                latencies.recordNanos(System.nanoTime() - begin);
+                gradeCounts.incrementAndGet(difficulty.ordinal());
+                if (library) {
+                    line = new byte[PuzzleLibrary.RECORD_SIZE + 1];
+                    PuzzleLibrary.packRecord(puzzle, solution, line);
+                    line[PuzzleLibrary.RECORD_SIZE] = (byte) difficulty.getCode(); // Tells the writer the section
+                } else {
+                    line = toLine(puzzle, solution, difficulty);
+                }
+                try {
+                    lines.put(line);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                completed.incrementAndGet();
+            }
+        }
+    }
+
+    // Method to get the random stream of a group of puzzles. The group seeds are the values of
+    // new SplittableRandom(seed).nextLong() in turn, computed from the index so groups can be taken in any order.
+    private SplittableRandom groupStream(long group) {
+        return new SplittableRandom(new SplittableRandom(seed + group * 0x9E3779B97F4A7C15L).nextLong());
+    }
+
+    // Method to generate the puzzle of one seed, remembering the seed if it was the slowest so far
+    private Puzzle generate(PuzzleGenerator generator, long puzzleSeed) {
+        long begin = System.nanoTime();
+        Puzzle puzzle = generator.generate(hints, puzzleSeed);
+        long nanos = System.nanoTime() - begin;
+        synchronized (this) {
+            if (nanos > slowestNanos) {
+                slowestNanos = nanos;
+                slowestSeed = puzzleSeed;
+            }
+        }
+        return puzzle;
+    }
+
+    // Method to check whether a puzzle is the same up to symmetry as one already kept, remembering it if not
+    private boolean isDuplicate(CanonicalForm canonicalForm, Board puzzle) {
+        if (written == null) {
+            return false;
+        }
+        canonicalForm.canonicalize(puzzle);
+        if (written.add(canonicalForm.getFingerprintHigh(), canonicalForm.getFingerprintLow())) {
+            return false;
+        }
+        duplicates.incrementAndGet();
+        return true;
+    }
+
+    // Method run by the writer thread: copy lines into a direct buffer and write it to the channel when full
+    private void writeLoop() throws IOException, InterruptedException {
+        if (library) {
+            try (PuzzleLibraryWriter writer = new PuzzleLibraryWriter(output)) {
+                byte[] record;
+                try {
+                    while ((record = lines.take()) != END_OF_BATCH) {
+                        writer.addRecord(record[PuzzleLibrary.RECORD_SIZE], hints, record); // Only the record itself is written
+                    }
+                } catch (IOException | InterruptedException e) {
+                    writer.abort();
+                    throw e;
+                }
+                if (workerError != null) {
+                    writer.abort(); // Keep the output file as it was rather than write an incomplete library
+                }
+            }
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+            while (true) {
+                byte[] line = lines.take();
+                if (line == END_OF_BATCH) {
+                    break;
+                }
+                if (buffer.remaining() < line.length) {
+                    drain(channel, buffer);
+                }
+                buffer.put(line);
+            }
+            drain(channel, buffer);
+        }
+    }
+
+    // Method to write everything in the buffer to the channel
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Method to print the progress, throughput, latency percentiles and grades
+    private void report(long start) {
+        long done = completed.get();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        StringBuilder grades = new StringBuilder();
+        for (Difficulty difficulty : Difficulty.values()) {
+            grades.append(", ").append(difficulty).append(' ').append(gradeCounts.get(difficulty.ordinal()));
+        }
+        if (written != null) {
+            grades.append(", duplicates dropped ").append(duplicates.get());
+        }
+        System.out.printf("%d/%d puzzles, %.1f puzzles/s, latency p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms%s%n",
+                done, count, done / seconds,
+                latencies.getPercentile(50) / 1000.0, latencies.getPercentile(90) / 1000.0,
+                latencies.getPercentile(99) / 1000.0, latencies.getPercentile(100) / 1000.0, grades);
+    }
+
+    // Method to encode a puzzle, its solution and its grade as one line of text
+    static byte[] toLine(Board puzzle, Board solution, Difficulty difficulty) {
+        String name = difficulty.toString();
+        byte[] line = new byte[2 * GRID_LENGTH + name.length() + 3]; // Two grids, two commas, the grade and a newline
+        int pos = 0;
+        for (int cell = 0; cell < GRID_LENGTH; cell++) {
+            int value = puzzle.get(cell);
+            line[pos++] = (byte) (value == 0 ? '.' : '0' + value);
+        }
+        line[pos++] = ',';
+        for (int cell = 0; cell < GRID_LENGTH; cell++) {
+            line[pos++] = (byte) ('0' + solution.get(cell));
+        }
+        line[pos++] = ',';
+        for (int i = 0; i < name.length(); i++) {
+            line[pos++] = (byte) name.charAt(i);
+        }
+        line[pos] = '\n';
+        return line;
+    }
+}
@@ -0,0 +1,386 @@
+package mindgrid;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Solver that tracks the digits used in every row, column and subgrid as bitmasks, for grids
+// from 4x4 to 25x25. It always branches on the empty cell with the fewest candidates and fills
+// in naked and hidden singles before branching. An instance is not thread-safe.
+public class BitmaskSolver implements SudokuSolver {
+    // Results of constraint propagation that are not a cell index
+    private static final int SOLVED = -1;
+    private static final int CONTRADICTION = -2;
+
+    // Grid size and subgrid size
+    private final int subgridSize;
+    private final int gridSize;
+    private final int cellCount;
+    private final int unitCount;
+    private final int allDigits; // Bitmask with a bit set for every digit
+
+    // Lookup tables mapping each cell to its row, column and subgrid, and each unit to its cells
+    private final int[] rowOf;
+    private final int[] colOf;
+    private final int[] boxOf;
+    private final int[][] cellsOfUnit;
+    private final int[] defaultOrder;
+
+    // Search state for every recursion depth, allocated once so the search itself allocates nothing.
+    // Every level fills at least one cell, so the depth never exceeds the number of cells.
+    private final int[][] values;
+    private final int[][] rowMasks;
+    private final int[][] colMasks;
+    private final int[][] boxMasks;
+    private final int[] firstSolution;
+
+    private int[] digitOrder; // Order in which digits are tried when branching
+    private int limit; // Number of solutions after which the search stops
+    private int count; // Number of solutions found so far
+    private AtomicInteger sharedCount; // Solutions found by all searches sharing the limit, or null
+    private long nodeCount; // Number of search nodes visited over the lifetime of the solver
+    private long backtrackCount; // Number of search nodes that ended in a dead end
+
+    // Constructor for a standard 9x9 grid
+    public BitmaskSolver() {
+        this(3);
+    }
+
+    // Constructor for a grid made of subgridSize x subgridSize subgrids, from 4x4 up to 25x25
+    public BitmaskSolver(int subgridSize) {
+        if (subgridSize < 2 || subgridSize > 5) {
+            throw new IllegalArgumentException("Subgrid size must be between 2 and 5: " + subgridSize);
+        }
+        this.subgridSize = subgridSize;
+        this.gridSize = subgridSize * subgridSize;
+        this.cellCount = gridSize * gridSize;
+        this.unitCount = 3 * gridSize;
+        this.allDigits = (1 << gridSize) - 1;
+        rowOf = new int[cellCount];
+        colOf = new int[cellCount];
+        boxOf = new int[cellCount];
+        cellsOfUnit = new int[unitCount][gridSize];
+        for (int cell = 0; cell < cellCount; cell++) {
+            int row = cell / gridSize;
+            int col = cell % gridSize;
+            int box = (row / subgridSize) * subgridSize + col / subgridSize;
+            rowOf[cell] = row;
+            colOf[cell] = col;
+            boxOf[cell] = box;
+            cellsOfUnit[row][col] = cell; // The first units are the rows
+            cellsOfUnit[gridSize + col][row] = cell; // Then the columns
+            cellsOfUnit[2 * gridSize + box][(row % subgridSize) * subgridSize + col % subgridSize] = cell; // Then the subgrids
+        }
+        defaultOrder = new int[gridSize];
+        for (int i = 0; i < gridSize; i++) {
+            defaultOrder[i] = i + 1;
+        }
+        values = new int[cellCount + 1][cellCount];
+        rowMasks = new int[cellCount + 1][gridSize];
+        colMasks = new int[cellCount + 1][gridSize];
+        boxMasks = new int[cellCount + 1][gridSize];
+        firstSolution = new int[cellCount];
+    }
+
+    @Override
+    public int getSubgridSize() {
+        return subgridSize;
+    }
+
+    @Override
+    public boolean solve(int[][] grid, int[] digitOrder) {
+        if (!load(grid)) {
+            return false; // The givens already conflict
+        }
+        runSearch(digitOrder, 1, null);
+        if (count == 0) {
+            return false; // No solution found
+        }
+        writeSolution(grid);
+        return true;
+    }
+
+    @Override
+    public boolean solve(Board board, int[] digitOrder) {
+        if (!load(board)) {
+            return false; // The givens already conflict
+        }
+        runSearch(digitOrder, 1, null);
+        if (count == 0) {
+            return false; // No solution found
+        }
+        writeSolution(board);
+        return true;
+    }
+
+    // Method to solve the grid in place and count its solutions in the same search, stopping at the limit.
+    // The grid is left as it is if there is no solution.
+    public int solveAndCount(int[][] grid, int limit) {
+        if (!load(grid)) {
+            return 0; // The givens already conflict
+        }
+        runSearch(defaultOrder, limit, null);
+        if (count > 0) {
+            writeSolution(grid);
+        }
+        return count;
+    }
+
+    // Method to solve a board in place and count its solutions in the same search, stopping at the limit
+    public int solveAndCount(Board board, int limit) {
+        if (!load(board)) {
+            return 0; // The givens already conflict
+        }
+        runSearch(defaultOrder, limit, null);
+        if (count > 0) {
+            writeSolution(board);
+        }
+        return count;
+    }
+
+    @Override
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    @Override
+    public long getBacktrackCount() {
+        return backtrackCount;
+    }
+
+    @Override
+    public int countSolutions(int[][] grid, int limit) {
+        return countSolutions(grid, limit, null);
+    }
+
+    // Method to count solutions as one part of a larger search. Every solution found is added to the
+    // shared counter, and the search stops once the shared total reaches the limit.
+    public int countSolutions(int[][] grid, int limit, AtomicInteger sharedCount) {
+        if (!load(grid)) {
+            return 0; // The givens already conflict
+        }
+        runSearch(defaultOrder, limit, sharedCount);
+        return count;
+    }
+
+    @Override
+    public int countSolutions(Board board, int limit) {
+        if (!load(board)) {
+            return 0; // The givens already conflict
+        }
+        runSearch(defaultOrder, limit, null);
+        return count;
+    }
+
+    // Method to reset the counters and start the search from the loaded grid
+    private void runSearch(int[] digitOrder, int limit, AtomicInteger sharedCount) {
+        this.digitOrder = digitOrder;
+        this.limit = limit;
+        this.count = 0;
+        this.sharedCount = sharedCount;
+        search(0);
+        this.sharedCount = null;
+    }
+
+    // Method to check whether enough solutions have been found, here or by the searches sharing the counter
+    private boolean limitReached() {
+        return count >= limit || (sharedCount != null && sharedCount.get() >= limit);
+    }
+
+    // Method to write the first solution found back to the grid
+    private void writeSolution(int[][] grid) {
+        for (int cell = 0; cell < cellCount; cell++) {
+            grid[rowOf[cell]][colOf[cell]] = firstSolution[cell];
+        }
+    }
+
+    // Method to write the first solution found back to the board
+    private void writeSolution(Board board) {
+        for (int cell = 0; cell < cellCount; cell++) {
+            board.set(cell, firstSolution[cell]);
+        }
+    }
+
+    // Method to load the grid into the first level of the search state
+    private boolean load(int[][] grid) {
+        clearFirstLevel();
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (!loadCell(cell, grid[rowOf[cell]][colOf[cell]])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Method to load the board into the first level of the search state
+    private boolean load(Board board) {
+        if (board.getGridSize() != gridSize) {
+            throw new IllegalArgumentException("The board is not " + gridSize + "x" + gridSize);
+        }
+        clearFirstLevel();
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (!loadCell(cell, board.get(cell))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Method to empty the first level of the search state
+    private void clearFirstLevel() {
+        int[] rows = rowMasks[0];
+        int[] cols = colMasks[0];
+        int[] boxes = boxMasks[0];
+        for (int i = 0; i < gridSize; i++) {
+            rows[i] = 0;
+            cols[i] = 0;
+            boxes[i] = 0;
+        }
+    }
+
+    // Method to put one given number on the first level; returns false if it conflicts with an earlier one
+    private boolean loadCell(int cell, int num) {
+        values[0][cell] = 0;
+        if (num != 0) {
+            int bit = 1 << (num - 1);
+            if (((rowMasks[0][rowOf[cell]] | colMasks[0][colOf[cell]] | boxMasks[0][boxOf[cell]]) & bit) != 0) {
+                return false; // The number is already present in the row, column or subgrid
+            }
+            place(0, cell, num);
+        }
+        return true;
+    }
+
+    // Method to search for solutions by branching on the most constrained cell
+    private void search(int depth) {
+        nodeCount++;
+        int cell = propagate(depth);
+        if (cell == CONTRADICTION) {
+            backtrackCount++;
+            return; // Dead end
+        }
+        if (cell == SOLVED) {
+            if (count == 0) {
+                System.arraycopy(values[depth], 0, firstSolution, 0, cellCount); // Remember the first solution
+            }
+            count++;
+            if (sharedCount != null) {
+                sharedCount.incrementAndGet();
+            }
+            return;
+        }
+        int candidates = candidates(depth, cell);
+        for (int num : digitOrder) {
+            if ((candidates & (1 << (num - 1))) != 0) {
+                copyState(depth, depth + 1);
+                place(depth + 1, cell, num); // Try the number on the next level
+                search(depth + 1);
+                if (limitReached()) {
+                    return; // Enough solutions found
+                }
+            }
+        }
+    }
+
+    // Method to fill in naked and hidden singles until nothing changes.
+    // Returns the empty cell with the fewest candidates, SOLVED or CONTRADICTION.
+    private int propagate(int depth) {
+        int[] cells = values[depth];
+        while (true) {
+            boolean changed = false;
+            int bestCell = SOLVED;
+            int bestCount = gridSize + 1;
+
+            // Naked singles: cells with only one candidate left
+            for (int cell = 0; cell < cellCount; cell++) {
+                if (cells[cell] == 0) {
+                    int candidates = candidates(depth, cell);
+                    if (candidates == 0) {
+                        return CONTRADICTION;
+                    }
+                    if ((candidates & (candidates - 1)) == 0) {
+                        place(depth, cell, Integer.numberOfTrailingZeros(candidates) + 1);
+                        changed = true;
+                    } else if (!changed) {
+                        int candidateCount = Integer.bitCount(candidates);
+                        if (candidateCount < bestCount) {
+                            bestCount = candidateCount;
+                            bestCell = cell;
+                        }
+                    }
+                }
+            }
+            if (changed) {
+                continue;
+            }
+
+            // Hidden singles: digits with only one possible cell left in a unit
+            for (int unit = 0; unit < unitCount; unit++) {
+                int[] unitCells = cellsOfUnit[unit];
+                int seenOnce = 0;
+                int seenTwice = 0;
+                for (int cell : unitCells) {
+                    if (cells[cell] == 0) {
+                        int candidates = candidates(depth, cell);
+                        seenTwice |= seenOnce & candidates;
+                        seenOnce |= candidates;
+                    }
+                }
+                if ((seenOnce | unitMask(depth, unit)) != allDigits) {
+                    return CONTRADICTION; // A missing digit has no place left in this unit
+                }
+                int singles = seenOnce & ~seenTwice;
+                while (singles != 0) {
+                    int bit = singles & -singles;
+                    singles &= singles - 1;
+                    int target = -1;
+                    for (int cell : unitCells) {
+                        if (cells[cell] == 0 && (candidates(depth, cell) & bit) != 0) {
+                            target = cell;
+                            break;
+                        }
+                    }
+                    if (target < 0) {
+                        return CONTRADICTION; // An earlier single in this unit took the only place
+                    }
+                    place(depth, target, Integer.numberOfTrailingZeros(bit) + 1);
+                    changed = true;
+                }
+            }
+            if (!changed) {
+                return bestCell;
+            }
+        }
+    }
+
+    // Method to get the candidates of a cell as a bitmask
+    private int candidates(int depth, int cell) {
+        return allDigits & ~(rowMasks[depth][rowOf[cell]] | colMasks[depth][colOf[cell]] | boxMasks[depth][boxOf[cell]]);
+    }
+
+    // Method to get the digits already placed in a unit as a bitmask
+    private int unitMask(int depth, int unit) {
+        if (unit < gridSize) {
+            return rowMasks[depth][unit];
+        }
+        if (unit < 2 * gridSize) {
+            return colMasks[depth][unit - gridSize];
+        }
+        return boxMasks[depth][unit - 2 * gridSize];
+    }
+
+    // Method to place a number in a cell and update the masks
+    private void place(int depth, int cell, int num) {
+        int bit = 1 << (num - 1);
+        values[depth][cell] = num;
+        rowMasks[depth][rowOf[cell]] |= bit;
+        colMasks[depth][colOf[cell]] |= bit;
+        boxMasks[depth][boxOf[cell]] |= bit;
+    }
+
+    // Method to copy the search state from one level to the next
+    private void copyState(int from, int to) {
+        System.arraycopy(values[from], 0, values[to], 0, cellCount);
+        System.arraycopy(rowMasks[from], 0, rowMasks[to], 0, gridSize);
+        System.arraycopy(colMasks[from], 0, colMasks[to], 0, gridSize);
+        System.arraycopy(boxMasks[from], 0, boxMasks[to], 0, gridSize);
+    }
+}
@@ -0,0 +1,164 @@
+package mindgrid;
+
+import java.util.Arrays;
+
+// Compact board of any supported size, from 4x4 to 25x25. The cells are kept in one flat
+// byte array in row-major order, with 0 for empty cells, and the cells given by the puzzle
+// (the clues) are kept as a bitmask, so a 9x9 board is one 81-byte array and two longs instead
+// of a row array per line. Copying a board into another one of the same size allocates nothing.
+// A board is not thread-safe.
+public class Board {
+    private final int subgridSize; // Size of the subgrids, 3 for a 9x9 board
+    private final int gridSize; // Number of rows, columns and digits
+    private final byte[] cells; // Value of every cell in row-major order, 0 for empty
+    private final long[] clues; // Bit set for every cell given by the puzzle
+
+    // Constructor for an empty board made of subgridSize x subgridSize subgrids
+    public Board(int subgridSize) {
+        if (subgridSize < 2 || subgridSize > 5) {
+            throw new IllegalArgumentException("Subgrid size must be between 2 and 5: " + subgridSize);
+        }
+        this.subgridSize = subgridSize;
+        this.gridSize = subgridSize * subgridSize;
+        this.cells = new byte[gridSize * gridSize];
+        this.clues = new long[(cells.length + 63) / 64];
+    }
+
+    // Method to create a board holding the values of a grid, with every filled cell marked as a clue
+    public static Board of(int[][] grid) {
+        Board board = new Board((int) Math.round(Math.sqrt(grid.length)));
+        if (board.gridSize != grid.length) {
+            throw new IllegalArgumentException("A grid of " + grid.length + " rows is not a square of subgrids");
+        }
+        board.load(grid);
+        board.markClues();
+        return board;
+    }
+
+    // Method to get the size of the subgrids
+    public int getSubgridSize() {
+        return subgridSize;
+    }
+
+    // Method to get the number of rows, columns and digits
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    // Method to get the number of cells
+    public int getCellCount() {
+        return cells.length;
+    }
+
+    // Method to get the value of a cell by its row-major index, 0 for empty
+    public int get(int cell) {
+        return cells[cell];
+    }
+
+    // Method to get the value of a cell, 0 for empty
+    public int get(int row, int col) {
+        return cells[row * gridSize + col];
+    }
+
+    // Method to set the value of a cell by its row-major index, 0 to clear it
+    public void set(int cell, int value) {
+        cells[cell] = (byte) value;
+    }
+
+    // Method to set the value of a cell, 0 to clear it
+    public void set(int row, int col, int value) {
+        cells[row * gridSize + col] = (byte) value;
+    }
+
+    // Method to check whether a cell is given by the puzzle
+    public boolean isClue(int cell) {
+        return (clues[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    // Method to check whether a cell is given by the puzzle
+    public boolean isClue(int row, int col) {
+        return isClue(row * gridSize + col);
+    }
+
+    // Method to mark exactly the filled cells as clues
+    public void markClues() {
+        Arrays.fill(clues, 0);
+        for (int cell = 0; cell < cells.length; cell++) {
+            if (cells[cell] != 0) {
+                clues[cell >>> 6] |= 1L << cell;
+            }
+        }
+    }
+
+    // Method to get the number of clues
+    public int getClueCount() {
+        int count = 0;
+        for (long word : clues) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    // Method to empty every cell and forget the clues
+    public void clear() {
+        Arrays.fill(cells, (byte) 0);
+        Arrays.fill(clues, 0);
+    }
+
+    // Method to copy the cells and clues into another board of the same size without allocating
+    public void copyTo(Board other) {
+        if (other.gridSize != gridSize) {
+            throw new IllegalArgumentException("The boards are of different sizes");
+        }
+        System.arraycopy(cells, 0, other.cells, 0, cells.length);
+        System.arraycopy(clues, 0, other.clues, 0, clues.length);
+    }
+
+    // Method to get an independent copy of the board
+    public Board copy() {
+        Board copy = new Board(subgridSize);
+        copyTo(copy);
+        return copy;
+    }
+
+    // Method to set the cells from a grid of the same size; the clues are left as they are
+    public void load(int[][] grid) {
+        for (int row = 0; row < gridSize; row++) {
+            int[] values = grid[row];
+            for (int col = 0; col < gridSize; col++) {
+                cells[row * gridSize + col] = (byte) values[col];
+            }
+        }
+    }
+
+    // Method to get the cells as a new grid, for code that works with rows of ints
+    public int[][] toArray() {
+        int[][] grid = new int[gridSize][gridSize];
+        for (int row = 0; row < gridSize; row++) {
+            for (int col = 0; col < gridSize; col++) {
+                grid[row][col] = cells[row * gridSize + col];
+            }
+        }
+        return grid;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Board && Arrays.equals(cells, ((Board) other).cells)
+                && Arrays.equals(clues, ((Board) other).clues);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(cells);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(cells.length);
+        for (byte value : cells) {
+            text.append(value == 0 ? '.' : Character.forDigit(value, 36)); // Digits above 9 as letters
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,214 @@
+package mindgrid;
+
+// Model of the board shown by a PuzzlePanel. It keeps, for every row, column and subgrid,
+// how often each digit occurs, plus the number of correctly filled cells, so that an edit,
+// the solved check and the conflict check each take constant time. The candidates of every
+// empty cell are cached too and refreshed for the cell's row, column and subgrid on each edit,
+// together with the candidates that HintEngine has ruled out by logic.
+public class BoardModel {
+    private final int gridSize; // Number of rows, columns and digits
+    private final int subgridSize; // Number of rows and columns in a subgrid
+    private final Board solution; // The solution of the puzzle
+    private final Board values; // Current value of every cell, 0 for empty, with the cells given by the puzzle as clues
+    private final int[][] rowCounts; // Occurrences of each digit in each row
+    private final int[][] colCounts; // Occurrences of each digit in each column
+    private final int[][] boxCounts; // Occurrences of each digit in each subgrid
+    private final int[] rowMasks; // Digits present in each row
+    private final int[] colMasks; // Digits present in each column
+    private final int[] boxMasks; // Digits present in each subgrid
+    private final int allDigits; // Bitmask with a bit set for every digit
+    private final int[][] candidates; // Digits that can still go in each empty cell, 0 for filled cells
+    private final int[][] eliminated; // Digits ruled out by logic in each cell, see eliminate
+    private int correctCells; // Number of cells that hold the digit of the solution
+    private long editCount; // Number of changes to the values, to tell when cached results are stale
+
+    // Constructor to initialize the model with the puzzle and its solution
+    public BoardModel(int[][] puzzle, int[][] solution) {
+        this(Board.of(puzzle), Board.of(solution));
+    }
+
+    // Constructor to initialize the model with the puzzle and its solution; the filled cells of the puzzle are
+    // its original numbers, and the solution board is kept, not copied
+    public BoardModel(Board puzzle, Board solution) {
+        this.gridSize = puzzle.getGridSize();
+        this.subgridSize = puzzle.getSubgridSize();
+        this.solution = solution;
+        this.values = new Board(subgridSize);
+        this.rowCounts = new int[gridSize][gridSize + 1];
+        this.colCounts = new int[gridSize][gridSize + 1];
+        this.boxCounts = new int[gridSize][gridSize + 1];
+        this.rowMasks = new int[gridSize];
+        this.colMasks = new int[gridSize];
+        this.boxMasks = new int[gridSize];
+        this.allDigits = (1 << gridSize) - 1;
+        this.candidates = new int[gridSize][gridSize];
+        this.eliminated = new int[gridSize][gridSize];
+        for (int row = 0; row < gridSize; row++) {
+            for (int col = 0; col < gridSize; col++) {
+                if (puzzle.get(row, col) != 0) {
+                    add(row, col, puzzle.get(row, col));
+                }
+            }
+        }
+        values.markClues();
+        for (int row = 0; row < gridSize; row++) {
+            for (int col = 0; col < gridSize; col++) {
+                refreshCandidates(row, col);
+            }
+        }
+    }
+
+    // Method to set the value of a cell, 0 to clear it; returns false if nothing changed
+    public boolean set(int row, int col, int value) {
+        if (values.isClue(row, col) || values.get(row, col) == value) {
+            return false; // Original numbers never change
+        }
+        if (values.get(row, col) != 0) {
+            remove(row, col);
+        }
+        if (value != 0) {
+            add(row, col, value);
+        }
+        editCount++;
+        refreshPeers(row, col);
+        return true;
+    }
+
+    // Method to get the number of rows, columns and digits
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    // Method to get the value of a cell, 0 for empty
+    public int get(int row, int col) {
+        return values.get(row, col);
+    }
+
+    // Method to check whether a cell is given by the puzzle
+    public boolean isOriginal(int row, int col) {
+        return values.isClue(row, col);
+    }
+
+    // Method to check whether a cell holds the digit of the solution
+    public boolean isCorrect(int row, int col) {
+        return values.get(row, col) == solution.get(row, col);
+    }
+
+    // Method to check whether a cell's digit also appears elsewhere in its row, column or subgrid
+    public boolean hasConflict(int row, int col) {
+        int value = values.get(row, col);
+        return value != 0 && (rowCounts[row][value] > 1 || colCounts[col][value] > 1
+                || boxCounts[boxOf(row, col)][value] > 1);
+    }
+
+    // Method to check whether every cell holds the digit of the solution
+    public boolean isSolved() {
+        return correctCells == gridSize * gridSize;
+    }
+
+    // Method to get the digits present in a row as a bitmask (bit 0 for digit 1)
+    public int getRowMask(int row) {
+        return rowMasks[row];
+    }
+
+    // Method to get the digits present in a column as a bitmask
+    public int getColMask(int col) {
+        return colMasks[col];
+    }
+
+    // Method to get the digits present in the subgrid containing a cell as a bitmask
+    public int getBoxMask(int row, int col) {
+        return boxMasks[boxOf(row, col)];
+    }
+
+    // Method to get the digits that can still go in a cell as a bitmask, 0 for a filled cell
+    public int getCandidates(int row, int col) {
+        return candidates[row][col];
+    }
+
+    // Method to rule digits out of a cell for good. Only deductions from a board without wrong
+    // entries may be passed here: they hold for the solution, so they stay true after any edit.
+    void eliminate(int row, int col, int digits) {
+        eliminated[row][col] |= digits;
+        candidates[row][col] &= ~digits;
+    }
+
+    // Method to get the number of changes made to the values so far
+    public long getEditCount() {
+        return editCount;
+    }
+
+    // Method to copy the values that were entered by the player, with 0 for empty and original cells
+    public int[][] getEntries() {
+        int[][] entries = new int[gridSize][gridSize];
+        for (int row = 0; row < gridSize; row++) {
+            for (int col = 0; col < gridSize; col++) {
+                if (!values.isClue(row, col)) {
+                    entries[row][col] = values.get(row, col);
+                }
+            }
+        }
+        return entries;
+    }
+
+    // Method to put a digit into an empty cell and update the counts
+    private void add(int row, int col, int value) {
+        int box = boxOf(row, col);
+        values.set(row, col, value);
+        if (++rowCounts[row][value] == 1) {
+            rowMasks[row] |= 1 << (value - 1);
+        }
+        if (++colCounts[col][value] == 1) {
+            colMasks[col] |= 1 << (value - 1);
+        }
+        if (++boxCounts[box][value] == 1) {
+            boxMasks[box] |= 1 << (value - 1);
+        }
+        if (value == solution.get(row, col)) {
+            correctCells++;
+        }
+    }
+
+    // Method to clear a filled cell and update the counts
+    private void remove(int row, int col) {
+        int value = values.get(row, col);
+        int box = boxOf(row, col);
+        if (--rowCounts[row][value] == 0) {
+            rowMasks[row] &= ~(1 << (value - 1));
+        }
+        if (--colCounts[col][value] == 0) {
+            colMasks[col] &= ~(1 << (value - 1));
+        }
+        if (--boxCounts[box][value] == 0) {
+            boxMasks[box] &= ~(1 << (value - 1));
+        }
+        if (value == solution.get(row, col)) {
+            correctCells--;
+        }
+        values.set(row, col, 0);
+    }
+
+    // Method to refresh the candidates of a cell and of every cell in its row, column and subgrid
+    private void refreshPeers(int row, int col) {
+        for (int i = 0; i < gridSize; i++) {
+            refreshCandidates(row, i);
+            refreshCandidates(i, col);
+        }
+        int boxRow = row - row % subgridSize;
+        int boxCol = col - col % subgridSize;
+        for (int i = 0; i < gridSize; i++) {
+            refreshCandidates(boxRow + i / subgridSize, boxCol + i % subgridSize);
+        }
+    }
+
+    // Method to work out the candidates of a cell from the digits around it
+    private void refreshCandidates(int row, int col) {
+        candidates[row][col] = values.get(row, col) != 0 ? 0
+                : allDigits & ~(rowMasks[row] | colMasks[col] | boxMasks[boxOf(row, col)] | eliminated[row][col]);
+    }
+
+    // Method to get the index of the subgrid containing a cell
+    private int boxOf(int row, int col) {
+        return (row / subgridSize) * subgridSize + col / subgridSize;
+    }
+}
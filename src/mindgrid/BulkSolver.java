@@ -0,0 +1,316 @@
+package mindgrid;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Headless mode that solves a large file of 9x9 puzzles, such as a collection of 17-clue puzzles
+// or the text output of the batch mode, on all cores. Every line holds a puzzle as 81 cells with
+// '.' or '0' for empty cells; anything after a comma is ignored and blank lines are skipped.
+// The input is memory-mapped in chunks of CHUNK_SIZE bytes that the workers claim in turn and
+// parse in place, so no input is copied onto the heap and memory use does not grow with the file.
+// A line belongs to the chunk it starts in.
+//
+// Every puzzle is solved and checked for uniqueness in the same search. The output has one line
+// per puzzle, in input order: the puzzle, a solution (empty if there is none), the status (unique,
+// multiple, unsolvable, or invalid for a line that is not a puzzle), the search nodes and the
+// solve time in microseconds. Finished chunks are written in order; a worker that gets more than
+// a few chunks ahead of the oldest unfinished one waits, which bounds the output held in memory.
+public class BulkSolver {
+    private static final int GRID_SIZE = 9;
+    private static final int CELL_COUNT = GRID_SIZE * GRID_SIZE;
+    private static final int CHUNK_SIZE = 1 << 18; // Bytes of input per chunk, about 3000 puzzles
+    private static final int MAX_LINE = 4096; // Longest input line
+    private static final int CHUNKS_AHEAD = 4; // Finished chunks per worker that may wait to be written
+    private static final String[] STATUSES = {"unsolvable", "unique", "multiple", "invalid"}; // By number of solutions
+    private static final int INVALID = 3; // Status of a line that is not a puzzle
+    private static final String USAGE = "Usage: solve INPUT [--out FILE] [--threads N] [--report-seconds N]";
+
+    private final Path input; // File of puzzles
+    private final Path output; // File the solutions and statistics are written to
+    private final int threads; // Number of solver threads
+    private final int reportSeconds; // Interval between progress reports
+
+    private final AtomicLong nextChunk = new AtomicLong(); // Next chunk to be claimed by a worker
+    private final AtomicLong processed = new AtomicLong(); // Lines answered so far
+    private final AtomicLong nodes = new AtomicLong(); // Search nodes over all puzzles
+    private final AtomicLongArray statusCounts = new AtomicLongArray(STATUSES.length); // Puzzles of each status
+    private final LatencyHistogram latencies = new LatencyHistogram(); // Solve time per puzzle
+    private final Map<Long, byte[]> finished = new HashMap<>(); // Output of chunks waiting for earlier ones, guarded by this
+    private FileChannel inputChannel;
+    private FileChannel outputChannel;
+    private long chunkCount; // Number of chunks in the input
+    private long nextToWrite; // Chunk whose output is written next, guarded by this
+    private volatile Throwable error; // Set if reading, writing or solving failed
+
+    // Constructor to set up a bulk run
+    public BulkSolver(Path input, Path output, int threads, int reportSeconds) {
+        this.input = input;
+        this.output = output;
+        this.threads = threads;
+        this.reportSeconds = reportSeconds;
+    }
+
+    // Entry point for the bulk-solve mode; see USAGE for the arguments
+    public static void main(String[] args) {
+        BulkSolver bulk;
+        try {
+            bulk = fromArguments(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        try {
+            bulk.run();
+        } catch (IOException | InterruptedException | IllegalStateException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    // Method to parse the command-line arguments
+    static BulkSolver fromArguments(String[] args) {
+        if (args.length == 0 || args[0].startsWith("--")) {
+            throw new IllegalArgumentException("An input file is required");
+        }
+        Path input = Paths.get(args[0]);
+        Path output = Paths.get("solutions.txt");
+        int threads = Runtime.getRuntime().availableProcessors();
+        int reportSeconds = 5;
+        for (int i = 1; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            String value = args[++i];
+            try {
+                switch (option) {
+                    case "--out":
+                        output = Paths.get(value);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value);
+                        break;
+                    case "--report-seconds":
+                        reportSeconds = Integer.parseInt(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + option);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid number for " + option + ": " + value);
+            }
+        }
+        if (threads < 1 || reportSeconds < 1) {
+            throw new IllegalArgumentException("The thread count and report interval must be positive");
+        }
+        return new BulkSolver(input, output, threads, reportSeconds);
+    }
+
+    // Method to solve the whole file and wait until everything is written
+    public void run() throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            inputChannel = in;
+            outputChannel = out;
+            chunkCount = (in.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "bulk-reporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reporter.scheduleAtFixedRate(() -> report(start), reportSeconds, reportSeconds, TimeUnit.SECONDS);
+            Thread[] workers = new Thread[threads];
+            for (int i = 0; i < threads; i++) {
+                workers[i] = new Thread(this::solveLoop, "bulk-solver-" + (i + 1));
+                workers[i].start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            reporter.shutdownNow();
+        }
+        if (error instanceof IOException) {
+            throw (IOException) error;
+        }
+        if (error != null) {
+            throw new IllegalStateException("Solving failed", error);
+        }
+        report(start); // Final summary
+    }
+
+    // Method run by each worker: solve chunks until the input is done or something failed
+    private void solveLoop() {
+        BitmaskSolver solver = new BitmaskSolver(); // Solvers are not thread-safe, so each worker has its own
+        Board grid = new Board(3);
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(2 * CHUNK_SIZE);
+        long chunk;
+        try {
+            while (error == null && (chunk = nextChunk.getAndIncrement()) < chunkCount) {
+                lines.reset();
+                solveChunk(chunk, solver, grid, lines);
+                commit(chunk, lines.toByteArray());
+            }
+        } catch (IOException | RuntimeException | Error e) {
+            fail(e); // Otherwise the chunk is never committed and the other workers wait for it forever
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Method to solve the puzzles on the lines that start in a chunk, adding an output line for each
+    private void solveChunk(long chunk, BitmaskSolver solver, Board grid, ByteArrayOutputStream lines) throws IOException {
+        long size = inputChannel.size();
+        long start = chunk * CHUNK_SIZE;
+        long mapStart = Math.max(0, start - 1); // One byte before the chunk shows whether a line starts at its beginning
+        long mapEnd = Math.min(size, start + CHUNK_SIZE + MAX_LINE); // The last line may run into the next chunk
+        MappedByteBuffer buffer = inputChannel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+        int end = (int) (Math.min(size, start + CHUNK_SIZE) - mapStart); // Lines starting here belong to the next chunk
+        int limit = buffer.limit();
+        int pos = (int) (start - mapStart);
+        while (pos > 0 && pos < end && buffer.get(pos - 1) != '\n') {
+            pos++; // Skip the rest of a line that started in the previous chunk
+        }
+        while (pos < end) {
+            int lineEnd = pos;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            if (lineEnd == limit && mapEnd < size) {
+                throw new IOException("Line at byte " + (mapStart + pos) + " is longer than " + MAX_LINE + " bytes");
+            }
+            solveLine(buffer, pos, lineEnd, solver, grid, lines);
+            pos = lineEnd + 1;
+        }
+    }
+
+    // Method to solve the puzzle on one line, adding its output line; blank lines are skipped
+    private void solveLine(ByteBuffer buffer, int from, int to, BitmaskSolver solver, Board grid,
+                           ByteArrayOutputStream lines) {
+        int cells = 0;
+        boolean valid = true;
+        int pos = from;
+        for (; pos < to && buffer.get(pos) != ','; pos++) {
+            byte b = buffer.get(pos);
+            if (b == ' ' || b == '\t' || b == '\r') {
+                continue;
+            }
+            if (cells == CELL_COUNT || (b != '.' && (b < '0' || b > '9'))) {
+                valid = false; // Too many cells or a character that is not a cell
+                continue;
+            }
+            grid.set(cells, b == '.' ? 0 : b - '0');
+            cells++;
+        }
+        if (cells == 0 && valid) {
+            return; // Blank line
+        }
+        if (!valid || cells != CELL_COUNT) {
+            for (int i = from; i < pos; i++) {
+                byte b = buffer.get(i);
+                if (b != '\r') {
+                    lines.write(b); // Echo the line as it is
+                }
+            }
+            lines.write(',');
+            finishLine(lines, INVALID, 0, 0);
+            return;
+        }
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            int value = grid.get(cell);
+            lines.write(value == 0 ? '.' : '0' + value);
+        }
+        lines.write(',');
+        long nodesBefore = solver.getNodeCount();
+        long begin = System.nanoTime();
+        int solutions = solver.solveAndCount(grid, 2); // Stop counting as soon as a second solution is found
+        long nanos = System.nanoTime() - begin;
+        if (solutions > 0) {
+            for (int cell = 0; cell < CELL_COUNT; cell++) {
+                lines.write('0' + grid.get(cell));
+            }
+        }
+        latencies.recordNanos(nanos);
+        finishLine(lines, solutions, solver.getNodeCount() - nodesBefore, nanos / 1_000);
+    }
+
+    // Method to end an output line with the status, the search nodes and the solve time
+    private void finishLine(ByteArrayOutputStream lines, int status, long searchNodes, long micros) {
+        lines.write(',');
+        byte[] name = STATUSES[status].getBytes(StandardCharsets.US_ASCII);
+        lines.write(name, 0, name.length);
+        lines.write(',');
+        writeNumber(lines, searchNodes);
+        lines.write(',');
+        writeNumber(lines, micros);
+        lines.write('\n');
+        statusCounts.incrementAndGet(status);
+        nodes.addAndGet(searchNodes);
+        processed.incrementAndGet();
+    }
+
+    // Method to hand in the output of a chunk and write every chunk that is next in line
+    private synchronized void commit(long chunk, byte[] lines) throws IOException, InterruptedException {
+        while (chunk - nextToWrite >= (long) CHUNKS_AHEAD * threads && error == null) {
+            wait(); // Too far ahead of the writer
+        }
+        finished.put(chunk, lines);
+        byte[] next;
+        while ((next = finished.remove(nextToWrite)) != null) {
+            ByteBuffer buffer = ByteBuffer.wrap(next);
+            while (buffer.hasRemaining()) {
+                outputChannel.write(buffer);
+            }
+            nextToWrite++;
+        }
+        notifyAll();
+    }
+
+    // Method to remember the first failure and wake up the workers waiting to commit
+    private synchronized void fail(Throwable e) {
+        if (error == null) {
+            error = e;
+        }
+        notifyAll();
+    }
+
+    // Method to print the progress, throughput and solve times so far
+    private void report(long start) {
+        long done = processed.get();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        StringBuilder statuses = new StringBuilder();
+        for (int i = 0; i < STATUSES.length; i++) {
+            statuses.append(", ").append(STATUSES[i]).append(' ').append(statusCounts.get(i));
+        }
+        System.out.printf("%d puzzles (%d/%d chunks), %.1f puzzles/s, solve time p50 %d us, p99 %d us, max %d us, "
+                        + "%.1f nodes per puzzle%s%n",
+                done, Math.min(nextChunk.get(), chunkCount), chunkCount, done / seconds,
+                latencies.getPercentile(50), latencies.getPercentile(99), latencies.getPercentile(100),
+                done == 0 ? 0.0 : (double) nodes.get() / done, statuses);
+    }
+
+    // Method to write a non-negative number in decimal
+    private static void writeNumber(ByteArrayOutputStream lines, long value) {
+        if (value >= 10) {
+            writeNumber(lines, value / 10);
+        }
+        lines.write((int) ('0' + value % 10));
+    }
+}
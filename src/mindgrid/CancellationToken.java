@@ -0,0 +1,16 @@
+package mindgrid;
+
+// Class to signal a running generation that it should stop as soon as possible
+public class CancellationToken {
+    private volatile boolean cancelled; // Flag set once cancellation is requested
+
+    // Method to request cancellation
+    public void cancel() {
+        cancelled = true;
+    }
+
+    // Method to check whether cancellation was requested
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
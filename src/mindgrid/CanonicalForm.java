@@ -0,0 +1,279 @@
+package mindgrid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Computes the canonical form of a 9x9 puzzle: the smallest grid, read row by row with empty
+// cells sorting after every digit, among all grids that PuzzleTransformer can turn the puzzle
+// into. Two puzzles are the same up to symmetry exactly when their canonical forms are equal,
+// and a 128-bit fingerprint of the canonical form is kept for FingerprintIndex.
+//
+// The rows of the canonical form are chosen one at a time. For every row the candidates are
+// all ways to continue the transforms that tied for the smallest rows so far, and only the
+// candidates giving the smallest next row are kept, so the search narrows quickly. Digits are
+// relabelled in order of first appearance, which is always the smallest labelling. A proper
+// puzzle takes tens of microseconds. Grids with almost no clues tie for so many transforms that
+// the candidates would not fit in memory, so grids with fewer than 17 clues, which cannot be
+// proper puzzles, are rejected, and so is any grid whose candidates pass MAX_CANDIDATES.
+// A CanonicalForm is not thread-safe, so every thread needs its own.
+public class CanonicalForm {
+    private static final int SUBGRID_SIZE = 3;
+    private static final int GRID_SIZE = SUBGRID_SIZE * SUBGRID_SIZE;
+    private static final int EMPTY = 0xF; // Code of an empty cell, sorting after every digit
+    private static final int[][] COLUMN_ORDERS = columnOrders(); // Every order of the stacks and the columns within them
+    private static final int MAX_CANDIDATES = 100_000; // Proper puzzles never keep more than a few thousand
+
+    private final int[][][] sources = new int[2][GRID_SIZE][GRID_SIZE]; // The puzzle and its transpose
+    private final int[] labels = new int[GRID_SIZE + 1]; // Scratch labelling of the row being evaluated
+    private final long[] rows = new long[GRID_SIZE]; // Rows of the canonical form, 4 bits per cell
+    private List<Candidate> candidates = new ArrayList<>(); // Transforms tying for the smallest rows so far
+    private List<Candidate> next = new ArrayList<>();
+    private long fingerprintHigh; // Fingerprint of the last canonical form
+    private long fingerprintLow;
+
+    // Class to hold a transform whose first rows give the smallest rows found so far
+    private static class Candidate {
+        int source; // 0 for the puzzle, 1 for its transpose
+        int[] columns; // Source column of each column
+        final int[] rowOrder = new int[GRID_SIZE]; // Source row of each row chosen so far
+        int usedRows; // Bit mask of the source rows chosen so far
+        final int[] labels = new int[GRID_SIZE + 1]; // Label of each source digit, 0 if not seen yet
+        int nextLabel;
+    }
+
+    // Method to compute the canonical form of a puzzle and its fingerprint
+    public int[][] canonicalize(int[][] puzzle) {
+        if (puzzle.length != GRID_SIZE) {
+            throw new IllegalArgumentException("Only 9x9 puzzles have a canonical form");
+        }
+        int clues = 0;
+        for (int row = 0; row < GRID_SIZE; row++) {
+            for (int col = 0; col < GRID_SIZE; col++) {
+                sources[0][row][col] = puzzle[row][col];
+                sources[1][col][row] = puzzle[row][col];
+                if (puzzle[row][col] != 0) {
+                    clues++;
+                }
+            }
+        }
+        return canonicalizeSources(clues).toArray();
+    }
+
+    // Method to compute the canonical form of a puzzle board and its fingerprint
+    public Board canonicalize(Board puzzle) {
+        if (puzzle.getGridSize() != GRID_SIZE) {
+            throw new IllegalArgumentException("Only 9x9 puzzles have a canonical form");
+        }
+        int clues = 0;
+        for (int row = 0; row < GRID_SIZE; row++) {
+            for (int col = 0; col < GRID_SIZE; col++) {
+                sources[0][row][col] = puzzle.get(row, col);
+                sources[1][col][row] = puzzle.get(row, col);
+                if (puzzle.get(row, col) != 0) {
+                    clues++;
+                }
+            }
+        }
+        return canonicalizeSources(clues);
+    }
+
+    // Method to compute the canonical form of the loaded puzzle and its fingerprint
+    private Board canonicalizeSources(int clues) {
+        if (clues < PuzzleGenerator.MIN_HINTS_9X9) {
+            throw new IllegalArgumentException("A puzzle needs at least " + PuzzleGenerator.MIN_HINTS_9X9
+                    + " clues to have a canonical form: " + clues);
+        }
+        try {
+            firstRow();
+            for (int position = 1; position < GRID_SIZE; position++) {
+                nextRow(position);
+            }
+        } finally {
+            candidates.clear();
+            next.clear();
+        }
+
+        Board canonical = new Board(3);
+        long high = 0x243F6A8885A308D3L; // Two hashes with different starting values and mixing
+        long low = 0x13198A2E03707344L;
+        for (int row = 0; row < GRID_SIZE; row++) {
+            long value = rows[row];
+            for (int col = 0; col < GRID_SIZE; col++) {
+                int code = (int) (value >>> 4 * (GRID_SIZE - 1 - col)) & 0xF;
+                canonical.set(row, col, code == EMPTY ? 0 : code);
+            }
+            high = mix(high ^ value);
+            low = mix(low + Long.rotateLeft(value, 29) * 0x9E3779B97F4A7C15L);
+        }
+        fingerprintHigh = high;
+        fingerprintLow = low;
+        canonical.markClues();
+        return canonical;
+    }
+
+    // Method to get the high 64 bits of the fingerprint of the last canonical form
+    public long getFingerprintHigh() {
+        return fingerprintHigh;
+    }
+
+    // Method to get the low 64 bits of the fingerprint of the last canonical form
+    public long getFingerprintLow() {
+        return fingerprintLow;
+    }
+
+    // Method to find the smallest first row over every source, row and column order. Its digits are
+    // always labelled 1, 2, 3... in reading order, so only the rows whose clues can be packed
+    // furthest to the left need to be tried with every column order.
+    private void firstRow() {
+        long best = Long.MAX_VALUE;
+        for (int source = 0; source < 2; source++) {
+            for (int row = 0; row < GRID_SIZE; row++) {
+                best = Math.min(best, packedRow(sources[source][row]));
+            }
+        }
+        int bestClues = 0; // Bit mask of the columns holding a clue in the smallest first row
+        for (int col = 0; col < GRID_SIZE; col++) {
+            if ((best >>> 4 * (GRID_SIZE - 1 - col) & 0xF) != EMPTY) {
+                bestClues |= 1 << col;
+            }
+        }
+        for (int source = 0; source < 2; source++) {
+            for (int row = 0; row < GRID_SIZE; row++) {
+                int[] cells = sources[source][row];
+                if (packedRow(cells) != best) {
+                    continue;
+                }
+                for (int[] columns : COLUMN_ORDERS) {
+                    int col = 0;
+                    while (col < GRID_SIZE && (cells[columns[col]] == 0) == (((bestClues >> col) & 1) == 0)) {
+                        col++;
+                    }
+                    if (col < GRID_SIZE) {
+                        continue; // Not packed as far to the left as possible
+                    }
+                    int nextLabel = 1;
+                    Arrays.fill(labels, 0);
+                    for (col = 0; col < GRID_SIZE; col++) {
+                        int digit = cells[columns[col]];
+                        if (digit != 0 && labels[digit] == 0) {
+                            labels[digit] = nextLabel++;
+                        }
+                    }
+                    Candidate candidate = new Candidate();
+                    candidate.source = source;
+                    candidate.columns = columns;
+                    candidate.rowOrder[0] = row;
+                    candidate.usedRows = 1 << row;
+                    System.arraycopy(labels, 0, candidate.labels, 0, labels.length);
+                    candidate.nextLabel = nextLabel;
+                    candidates.add(candidate);
+                }
+            }
+        }
+        rows[0] = best;
+    }
+
+    // Method to get the smallest value of a row as a first row: the stacks with the most clues
+    // first and the clues first within every stack
+    private static long packedRow(int[] cells) {
+        int[] counts = new int[SUBGRID_SIZE];
+        for (int col = 0; col < GRID_SIZE; col++) {
+            if (cells[col] != 0) {
+                counts[col / SUBGRID_SIZE]++;
+            }
+        }
+        Arrays.sort(counts);
+        long value = 0;
+        int label = 1;
+        for (int stack = SUBGRID_SIZE - 1; stack >= 0; stack--) {
+            for (int col = 0; col < SUBGRID_SIZE; col++) {
+                value = value << 4 | (col < counts[stack] ? label++ : EMPTY);
+            }
+        }
+        return value;
+    }
+
+    // Method to find the smallest row at the given position over every way to extend the candidates
+    private void nextRow(int position) {
+        long best = Long.MAX_VALUE;
+        next.clear();
+        for (Candidate candidate : candidates) {
+            int band = candidate.rowOrder[position - 1] / SUBGRID_SIZE;
+            for (int row = 0; row < GRID_SIZE; row++) {
+                if ((candidate.usedRows & 1 << row) != 0) {
+                    continue;
+                }
+                // Within a band any unused row of the same band, at the start of a band any row of an unused band
+                if (position % SUBGRID_SIZE != 0 ? row / SUBGRID_SIZE != band
+                        : (candidate.usedRows >> (row / SUBGRID_SIZE * SUBGRID_SIZE) & 7) != 0) {
+                    continue;
+                }
+                int[] cells = sources[candidate.source][row];
+                System.arraycopy(candidate.labels, 0, labels, 0, labels.length);
+                int nextLabel = candidate.nextLabel;
+                long value = 0;
+                for (int col = 0; col < GRID_SIZE; col++) {
+                    int digit = cells[candidate.columns[col]];
+                    if (digit != 0 && labels[digit] == 0) {
+                        labels[digit] = nextLabel++;
+                    }
+                    value = value << 4 | (digit == 0 ? EMPTY : labels[digit]);
+                }
+                if (value > best) {
+                    continue;
+                }
+                if (value < best) {
+                    best = value;
+                    next.clear();
+                }
+                if (next.size() == MAX_CANDIDATES) {
+                    throw new IllegalArgumentException("The puzzle ties for more than " + MAX_CANDIDATES + " transforms");
+                }
+                Candidate extended = new Candidate();
+                extended.source = candidate.source;
+                extended.columns = candidate.columns;
+                System.arraycopy(candidate.rowOrder, 0, extended.rowOrder, 0, position);
+                extended.rowOrder[position] = row;
+                extended.usedRows = candidate.usedRows | 1 << row;
+                System.arraycopy(labels, 0, extended.labels, 0, labels.length);
+                extended.nextLabel = nextLabel;
+                next.add(extended);
+            }
+        }
+        rows[position] = best;
+        List<Candidate> swap = candidates;
+        candidates = next;
+        next = swap;
+    }
+
+    // Method to scramble the bits of a hash state
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Method to list every column order that keeps the stacks together: 6 stack orders times 6^3 orders within them
+    private static int[][] columnOrders() {
+        int[][] permutations = {{0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}};
+        int[][] orders = new int[6 * 6 * 6 * 6][GRID_SIZE];
+        int index = 0;
+        for (int[] stacks : permutations) {
+            for (int[] first : permutations) {
+                for (int[] second : permutations) {
+                    for (int[] third : permutations) {
+                        int[][] inner = {first, second, third};
+                        for (int stack = 0; stack < SUBGRID_SIZE; stack++) {
+                            for (int col = 0; col < SUBGRID_SIZE; col++) {
+                                orders[index][stack * SUBGRID_SIZE + col] = stacks[stack] * SUBGRID_SIZE + inner[stack][col];
+                            }
+                        }
+                        index++;
+                    }
+                }
+            }
+        }
+        return orders;
+    }
+}
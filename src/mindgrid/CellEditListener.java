@@ -0,0 +1,7 @@
+package mindgrid;
+
+// Interface for receiving the edits the player makes on a SudokuGrid
+public interface CellEditListener {
+    // Method called after a cell changed, with 0 for an empty cell
+    void cellEdited(int row, int col, int oldValue, int newValue);
+}
@@ -1,8 +1,11 @@
+package mindgrid;
+
 import java.awt.Color;
 import java.io.Serializable;
 
 // Class to represent the state of a single cell in the puzzle
 public class CellState implements Serializable {
+    private static final long serialVersionUID = -6802275361456572681L; // Computed for the class in the default package, keeps old saves readable
     private final String text; // The text in the cell
     private final Color color; // The color of the text
     private final boolean original; // Flag to indicate if the cell is an original number
@@ -0,0 +1,329 @@
+package mindgrid;
+
+// Solver that treats Sudoku as an exact-cover problem and runs Knuth's Algorithm X on
+// dancing links. The constraint columns (324 for a 9x9 grid) and candidate rows (729) are
+// linked once in the constructor, and every call covers and uncovers the same node arena,
+// so solving and counting allocate nothing. An instance is not thread-safe.
+public class DancingLinksSolver implements SudokuSolver {
+    private static final int NODES_PER_ROW = 4; // Every candidate satisfies exactly four constraints
+    private static final int ROOT = 0;
+
+    // Grid size, subgrid size and the dimensions of the exact-cover matrix
+    private final int subgridSize;
+    private final int gridSize;
+    private final int cellCount;
+    private final int columnCount; // Cell, row-digit, column-digit and subgrid-digit constraints
+    private final int rowCount; // One candidate row for every digit in every cell
+    private final int firstRowNode;
+    private final int[] defaultOrder;
+
+    // Node arena: index 0 is the root, then come the column headers, the rest are candidate nodes
+    private final int[] left;
+    private final int[] right;
+    private final int[] up;
+    private final int[] down;
+    private final int[] column; // Column header of each node
+    private final int[] candidate; // Candidate row of each node
+    private final int[] size; // Number of nodes left in each column
+
+    private final int[] chosen; // Candidate rows chosen on the current search path
+    private final int[] firstSolution;
+    private final int[] givenNodes; // First node of each given that was covered
+    private final int[] digitRank; // Position of each digit in the current digit order
+    private int givenCount; // Number of givens covered before the search
+    private int chosenCount; // Number of candidates chosen on the current search path
+    private int firstSolutionCount;
+    private int limit; // Number of solutions after which the search stops
+    private int count; // Number of solutions found so far
+    private long nodeCount; // Number of search nodes visited over the lifetime of the solver
+    private long backtrackCount; // Number of search nodes that ended in a dead end
+
+    // Constructor to link the exact-cover matrix for a 9x9 grid
+    public DancingLinksSolver() {
+        this(3);
+    }
+
+    // Constructor to link the exact-cover matrix for a grid of subgridSize x subgridSize subgrids
+    public DancingLinksSolver(int subgridSize) {
+        if (subgridSize < 2 || subgridSize > 5) {
+            throw new IllegalArgumentException("Subgrid size must be between 2 and 5: " + subgridSize);
+        }
+        this.subgridSize = subgridSize;
+        this.gridSize = subgridSize * subgridSize;
+        this.cellCount = gridSize * gridSize;
+        this.columnCount = 4 * cellCount;
+        this.rowCount = cellCount * gridSize;
+        this.firstRowNode = columnCount + 1;
+        defaultOrder = new int[gridSize];
+        for (int i = 0; i < gridSize; i++) {
+            defaultOrder[i] = i + 1;
+        }
+        chosen = new int[cellCount];
+        firstSolution = new int[cellCount];
+        givenNodes = new int[cellCount];
+        digitRank = new int[gridSize + 1];
+        int arenaSize = firstRowNode + rowCount * NODES_PER_ROW;
+        left = new int[arenaSize];
+        right = new int[arenaSize];
+        up = new int[arenaSize];
+        down = new int[arenaSize];
+        column = new int[arenaSize];
+        candidate = new int[arenaSize];
+        size = new int[columnCount + 1];
+
+        // Link the root and the column headers into a circular list
+        for (int c = 0; c <= columnCount; c++) {
+            left[c] = c == 0 ? columnCount : c - 1;
+            right[c] = c == columnCount ? 0 : c + 1;
+            up[c] = c;
+            down[c] = c;
+            column[c] = c;
+        }
+
+        // Add four nodes for every candidate row and append them to their columns
+        for (int row = 0; row < rowCount; row++) {
+            int cell = row / gridSize;
+            int digit = row % gridSize;
+            int r = cell / gridSize;
+            int c = cell % gridSize;
+            int box = (r / subgridSize) * subgridSize + c / subgridSize;
+            int[] columns = {
+                    1 + cell,
+                    1 + cellCount + r * gridSize + digit,
+                    1 + 2 * cellCount + c * gridSize + digit,
+                    1 + 3 * cellCount + box * gridSize + digit
+            };
+            int first = firstRowNode + row * NODES_PER_ROW;
+            for (int k = 0; k < NODES_PER_ROW; k++) {
+                int node = first + k;
+                int header = columns[k];
+                column[node] = header;
+                candidate[node] = row;
+                left[node] = first + (k + NODES_PER_ROW - 1) % NODES_PER_ROW;
+                right[node] = first + (k + 1) % NODES_PER_ROW;
+                up[node] = up[header];
+                down[node] = header;
+                down[up[header]] = node;
+                up[header] = node;
+                size[header]++;
+            }
+        }
+    }
+
+    @Override
+    public int getSubgridSize() {
+        return subgridSize;
+    }
+
+    @Override
+    public boolean solve(int[][] grid, int[] digitOrder) {
+        if (run(grid, digitOrder, 1) == 0) {
+            return false; // No solution found
+        }
+        for (int i = 0; i < firstSolutionCount; i++) {
+            int row = firstSolution[i];
+            int cell = row / gridSize;
+            grid[cell / gridSize][cell % gridSize] = row % gridSize + 1; // Write the chosen digits back to the grid
+        }
+        return true;
+    }
+
+    @Override
+    public boolean solve(Board board, int[] digitOrder) {
+        if (run(board, digitOrder, 1) == 0) {
+            return false; // No solution found
+        }
+        for (int i = 0; i < firstSolutionCount; i++) {
+            int row = firstSolution[i];
+            board.set(row / gridSize, row % gridSize + 1); // Write the chosen digits back to the board
+        }
+        return true;
+    }
+
+    @Override
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    @Override
+    public long getBacktrackCount() {
+        return backtrackCount;
+    }
+
+    @Override
+    public int countSolutions(int[][] grid, int limit) {
+        return run(grid, defaultOrder, limit);
+    }
+
+    @Override
+    public int countSolutions(Board board, int limit) {
+        return run(board, defaultOrder, limit);
+    }
+
+    // Method to cover the givens, run the search and restore the matrix afterwards
+    private int run(int[][] grid, int[] digitOrder, int limit) {
+        reset(digitOrder, limit);
+        if (coverGivens(grid)) {
+            search();
+        }
+        uncoverGivens();
+        return count;
+    }
+
+    // Method to cover the givens of a board, run the search and restore the matrix afterwards
+    private int run(Board board, int[] digitOrder, int limit) {
+        if (board.getGridSize() != gridSize) {
+            throw new IllegalArgumentException("The board is not " + gridSize + "x" + gridSize);
+        }
+        reset(digitOrder, limit);
+        if (coverGivens(board)) {
+            search();
+        }
+        uncoverGivens();
+        return count;
+    }
+
+    // Method to reset the search state before a run
+    private void reset(int[] digitOrder, int limit) {
+        for (int i = 0; i < digitOrder.length; i++) {
+            digitRank[digitOrder[i]] = i;
+        }
+        this.limit = limit;
+        count = 0;
+        chosenCount = 0;
+        firstSolutionCount = 0;
+        givenCount = 0;
+    }
+
+    // Method to remove the rows of the given numbers from the matrix; returns false if the givens conflict
+    private boolean coverGivens(int[][] grid) {
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (!coverGiven(cell, grid[cell / gridSize][cell % gridSize])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Method to remove the rows of the numbers on the board from the matrix; returns false if they conflict
+    private boolean coverGivens(Board board) {
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (!coverGiven(cell, board.get(cell))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Method to remove the row of one given number; returns false if it conflicts with an earlier one
+    private boolean coverGiven(int cell, int num) {
+        if (num == 0) {
+            return true; // Empty cell
+        }
+        int first = firstRowNode + (cell * gridSize + num - 1) * NODES_PER_ROW;
+        int node = first;
+        do {
+            if (right[left[column[node]]] != column[node]) {
+                return false; // The constraint is already satisfied by another given
+            }
+            node = right[node];
+        } while (node != first);
+        selectRow(first);
+        givenNodes[givenCount++] = first;
+        return true;
+    }
+
+    // Method to put the rows of the givens back into the matrix in reverse order
+    private void uncoverGivens() {
+        while (givenCount > 0) {
+            deselectRow(givenNodes[--givenCount]);
+        }
+    }
+
+    // Method to search for exact covers of the remaining columns
+    private void search() {
+        nodeCount++;
+        if (right[ROOT] == ROOT) {
+            if (count == 0) {
+                System.arraycopy(chosen, 0, firstSolution, 0, chosenCount); // Remember the first solution
+                firstSolutionCount = chosenCount;
+            }
+            count++;
+            return;
+        }
+
+        // Choose the column with the fewest remaining rows
+        int best = right[ROOT];
+        for (int c = right[best]; c != ROOT; c = right[c]) {
+            if (size[c] < size[best]) {
+                best = c;
+            }
+        }
+        if (size[best] == 0) {
+            backtrackCount++;
+            return; // Dead end
+        }
+
+        cover(best);
+        // Try the rows in the requested digit order
+        for (int rank = 0; rank < gridSize && count < limit; rank++) {
+            for (int node = down[best]; node != best && count < limit; node = down[node]) {
+                if (digitRank[candidate[node] % gridSize + 1] != rank) {
+                    continue;
+                }
+                chosen[chosenCount++] = candidate[node];
+                for (int j = right[node]; j != node; j = right[j]) {
+                    cover(column[j]);
+                }
+                search();
+                for (int j = left[node]; j != node; j = left[j]) {
+                    uncover(column[j]);
+                }
+                chosenCount--;
+            }
+        }
+        uncover(best);
+    }
+
+    // Method to cover every column of the row containing the given node
+    private void selectRow(int node) {
+        cover(column[node]);
+        for (int j = right[node]; j != node; j = right[j]) {
+            cover(column[j]);
+        }
+    }
+
+    // Method to undo selectRow
+    private void deselectRow(int node) {
+        for (int j = left[node]; j != node; j = left[j]) {
+            uncover(column[j]);
+        }
+        uncover(column[node]);
+    }
+
+    // Method to remove a column and every row that intersects it
+    private void cover(int c) {
+        right[left[c]] = right[c];
+        left[right[c]] = left[c];
+        for (int i = down[c]; i != c; i = down[i]) {
+            for (int j = right[i]; j != i; j = right[j]) {
+                down[up[j]] = down[j];
+                up[down[j]] = up[j];
+                size[column[j]]--;
+            }
+        }
+    }
+
+    // Method to undo cover in exactly the reverse order
+    private void uncover(int c) {
+        for (int i = up[c]; i != c; i = up[i]) {
+            for (int j = left[i]; j != i; j = left[j]) {
+                size[column[j]]++;
+                down[up[j]] = j;
+                up[down[j]] = j;
+            }
+        }
+        right[left[c]] = c;
+        left[right[c]] = c;
+    }
+}
@@ -0,0 +1,49 @@
+package mindgrid;
+
+// Difficulty of a puzzle, given by the hardest solving technique it needs. The code is the
+// value stored in puzzle libraries, where 0 marks puzzles that were not graded.
+public enum Difficulty {
+    EASY("Easy"), // Singles only
+    MEDIUM("Medium"), // Pointing and claiming
+    HARD("Hard"), // Naked and hidden pairs and triples
+    EXPERT("Expert"), // X-Wing
+    EXTREME("Extreme"); // Needs techniques beyond the grader, or guessing
+
+    private final String label; // Name shown to the player
+
+    Difficulty(String label) {
+        this.label = label;
+    }
+
+    // Method to get the code stored for this difficulty, from 1 for EASY upwards
+    public int getCode() {
+        return ordinal() + 1;
+    }
+
+    // Method to get the difficulty with the given code, or null for ungraded puzzles
+    public static Difficulty fromCode(int code) {
+        Difficulty[] all = values();
+        if (code == PuzzleLibrary.UNGRADED) {
+            return null;
+        }
+        if (code < 1 || code > all.length) {
+            throw new IllegalArgumentException("Unknown difficulty code " + code);
+        }
+        return all[code - 1];
+    }
+
+    // Method to find a difficulty by its name, ignoring case
+    public static Difficulty parse(String name) {
+        for (Difficulty difficulty : values()) {
+            if (difficulty.label.equalsIgnoreCase(name)) {
+                return difficulty;
+            }
+        }
+        throw new IllegalArgumentException("Unknown difficulty " + name);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
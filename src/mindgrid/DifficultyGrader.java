@@ -0,0 +1,452 @@
+package mindgrid;
+
+// Grader that solves a puzzle the way a person would, with a ladder of logical techniques, and
+// rates it by the hardest technique it needs. The simplest technique that makes progress is
+// always applied first: singles, then pointing and claiming, then naked and hidden pairs and
+// triples, then X-Wing. A puzzle that none of them can finish is rated EXTREME.
+//
+// Candidates are kept as one bitmask per cell in arrays that are reused for every puzzle, so
+// grading allocates nothing. The same ladder finds the next step for HintEngine. An instance
+// is not thread-safe.
+public class DifficultyGrader {
+    // Grid size and subgrid size
+    private final int subgridSize;
+    private final int gridSize;
+    private final int cellCount;
+    private final int unitCount;
+    private final int allDigits; // Bitmask with a bit set for every digit
+
+    // Lookup tables mapping each cell to its units and each unit to its cells
+    private final int[][] unitsOfCell;
+    private final int[][] cellsOfUnit;
+
+    // Grading state, reused for every puzzle
+    private final int[] values; // Value of every cell, 0 for empty
+    private final int[] candidates; // Candidates of every empty cell, 0 for filled cells
+    private final int[] placed; // Digits placed in every unit
+    private final int[][] segments; // Candidates in each part of a row or column that lies in one subgrid
+    private final int[] masks; // Scratch masks for subsets and X-Wing
+    private int emptyCells; // Number of cells still empty
+    private boolean contradiction; // Set when a cell runs out of candidates
+    private String technique; // Name of the last technique that removed candidates, for hints
+
+    // Constructor for a standard 9x9 grid
+    public DifficultyGrader() {
+        this(3);
+    }
+
+    // Constructor for a grid made of subgridSize x subgridSize subgrids, from 4x4 up to 25x25
+    public DifficultyGrader(int subgridSize) {
+        if (subgridSize < 2 || subgridSize > 5) {
+            throw new IllegalArgumentException("Subgrid size must be between 2 and 5: " + subgridSize);
+        }
+        this.subgridSize = subgridSize;
+        this.gridSize = subgridSize * subgridSize;
+        this.cellCount = gridSize * gridSize;
+        this.unitCount = 3 * gridSize;
+        this.allDigits = (1 << gridSize) - 1;
+        unitsOfCell = new int[cellCount][3];
+        cellsOfUnit = new int[unitCount][gridSize];
+        for (int cell = 0; cell < cellCount; cell++) {
+            int row = cell / gridSize;
+            int col = cell % gridSize;
+            int box = (row / subgridSize) * subgridSize + col / subgridSize;
+            unitsOfCell[cell][0] = row; // The first units are the rows
+            unitsOfCell[cell][1] = gridSize + col; // Then the columns
+            unitsOfCell[cell][2] = 2 * gridSize + box; // Then the subgrids
+            cellsOfUnit[row][col] = cell;
+            cellsOfUnit[gridSize + col][row] = cell;
+            cellsOfUnit[2 * gridSize + box][(row % subgridSize) * subgridSize + col % subgridSize] = cell;
+        }
+        values = new int[cellCount];
+        candidates = new int[cellCount];
+        placed = new int[unitCount];
+        segments = new int[gridSize][subgridSize];
+        masks = new int[gridSize];
+    }
+
+    // Method to get the size of the subgrids of the grids this grader handles
+    public int getSubgridSize() {
+        return subgridSize;
+    }
+
+    // Method to grade a puzzle; puzzles with conflicting givens or no logical solution are EXTREME
+    public Difficulty grade(int[][] puzzle) {
+        return grade(Board.of(puzzle));
+    }
+
+    // Method to grade a puzzle board; puzzles with conflicting givens or no logical solution are EXTREME
+    public Difficulty grade(Board puzzle) {
+        if (!load(puzzle)) {
+            return Difficulty.EXTREME;
+        }
+        Difficulty hardest = Difficulty.EASY;
+        while (emptyCells > 0 && !contradiction) {
+            if (fillSingles()) {
+                continue; // Always retry the simplest technique after any progress
+            }
+            Difficulty needed;
+            if (lockedCandidates(false) || lockedCandidates(true)) {
+                needed = Difficulty.MEDIUM;
+            } else if (subsets(2) || subsets(3)) {
+                needed = Difficulty.HARD;
+            } else if (xWing(false) || xWing(true)) {
+                needed = Difficulty.EXPERT;
+            } else {
+                return Difficulty.EXTREME; // Stuck: the puzzle needs more than this ladder
+            }
+            if (needed.compareTo(hardest) > 0) {
+                hardest = needed;
+            }
+        }
+        return contradiction ? Difficulty.EXTREME : hardest;
+    }
+
+    // Method to find the next number a person would place on a partly filled board, or null if the
+    // ladder finds none. The board is given as the value of every cell and the known candidates of
+    // every empty cell, in row-major order; the candidates receive the eliminations made on the way
+    // so they need not be found again. Package-private for HintEngine.
+    Hint findHint(int[] cellValues, int[] cellCandidates) {
+        contradiction = false;
+        emptyCells = 0;
+        for (int unit = 0; unit < unitCount; unit++) {
+            placed[unit] = 0;
+        }
+        for (int cell = 0; cell < cellCount; cell++) {
+            values[cell] = cellValues[cell];
+            if (values[cell] == 0) {
+                candidates[cell] = cellCandidates[cell];
+                emptyCells++;
+            } else {
+                candidates[cell] = 0;
+                for (int unit : unitsOfCell[cell]) {
+                    placed[unit] |= 1 << (values[cell] - 1);
+                }
+            }
+        }
+        Difficulty hardest = Difficulty.EASY;
+        String steps = null; // Hardest technique needed before a single appears
+        while (emptyCells > 0 && !contradiction) {
+            Hint hint = findSingle(steps);
+            if (hint != null) {
+                System.arraycopy(candidates, 0, cellCandidates, 0, cellCount);
+                return hint;
+            }
+            if (contradiction) {
+                break;
+            }
+            Difficulty needed;
+            if (lockedCandidates(false) || lockedCandidates(true)) {
+                needed = Difficulty.MEDIUM;
+            } else if (subsets(2) || subsets(3)) {
+                needed = Difficulty.HARD;
+            } else if (xWing(false) || xWing(true)) {
+                needed = Difficulty.EXPERT;
+            } else {
+                break; // The board needs more than this ladder
+            }
+            if (steps == null || needed.compareTo(hardest) > 0) {
+                hardest = needed;
+                steps = technique;
+            }
+        }
+        return null;
+    }
+
+    // Method to find a naked or hidden single without placing it, naming it after the given earlier technique
+    private Hint findSingle(String steps) {
+        for (int cell = 0; cell < cellCount; cell++) {
+            int cellCandidates = candidates[cell];
+            if (values[cell] == 0 && cellCandidates == 0) {
+                contradiction = true;
+                return null;
+            }
+            if (values[cell] == 0 && (cellCandidates & (cellCandidates - 1)) == 0) {
+                return new Hint(cell / gridSize, cell % gridSize, Integer.numberOfTrailingZeros(cellCandidates) + 1,
+                        steps == null ? "Naked single" : steps + ", then a naked single");
+            }
+        }
+        for (int unit = 0; unit < unitCount; unit++) {
+            int[] unitCells = cellsOfUnit[unit];
+            int seenOnce = 0;
+            int seenTwice = 0;
+            for (int cell : unitCells) {
+                seenTwice |= seenOnce & candidates[cell];
+                seenOnce |= candidates[cell];
+            }
+            if ((seenOnce | placed[unit]) != allDigits) {
+                contradiction = true;
+                return null;
+            }
+            int singles = seenOnce & ~seenTwice;
+            if (singles != 0) {
+                int bit = singles & -singles;
+                for (int cell : unitCells) {
+                    if ((candidates[cell] & bit) != 0) {
+                        String unitName = unit < gridSize ? "row" : unit < 2 * gridSize ? "column" : "subgrid";
+                        return new Hint(cell / gridSize, cell % gridSize, Integer.numberOfTrailingZeros(bit) + 1,
+                                steps == null ? "Hidden single in its " + unitName : steps + ", then a hidden single in its " + unitName);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    // Method to load a puzzle and set up the candidates; returns false if the givens conflict
+    private boolean load(Board puzzle) {
+        contradiction = false;
+        emptyCells = cellCount;
+        for (int cell = 0; cell < cellCount; cell++) {
+            values[cell] = 0;
+            candidates[cell] = allDigits;
+        }
+        for (int unit = 0; unit < unitCount; unit++) {
+            placed[unit] = 0;
+        }
+        for (int cell = 0; cell < cellCount; cell++) {
+            int num = puzzle.get(cell);
+            if (num != 0) {
+                if ((candidates[cell] & (1 << (num - 1))) == 0) {
+                    return false; // The number is already present in the row, column or subgrid
+                }
+                place(cell, num);
+            }
+        }
+        return !contradiction;
+    }
+
+    // Method to fill in every naked and hidden single found in one pass; returns true if any was placed
+    private boolean fillSingles() {
+        boolean changed = false;
+
+        // Naked singles: cells with only one candidate left
+        for (int cell = 0; cell < cellCount; cell++) {
+            int cellCandidates = candidates[cell];
+            if (values[cell] == 0 && cellCandidates != 0 && (cellCandidates & (cellCandidates - 1)) == 0) {
+                place(cell, Integer.numberOfTrailingZeros(cellCandidates) + 1);
+                changed = true;
+            }
+        }
+
+        // Hidden singles: digits with only one possible cell left in a unit
+        for (int unit = 0; unit < unitCount; unit++) {
+            int[] unitCells = cellsOfUnit[unit];
+            int seenOnce = 0;
+            int seenTwice = 0;
+            for (int cell : unitCells) {
+                seenTwice |= seenOnce & candidates[cell];
+                seenOnce |= candidates[cell];
+            }
+            if ((seenOnce | placed[unit]) != allDigits) {
+                contradiction = true; // A missing digit has no place left in this unit
+                return false;
+            }
+            int singles = seenOnce & ~seenTwice;
+            while (singles != 0) {
+                int bit = singles & -singles;
+                singles &= singles - 1;
+                for (int cell : unitCells) {
+                    if ((candidates[cell] & bit) != 0) {
+                        place(cell, Integer.numberOfTrailingZeros(bit) + 1);
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    // Method to apply pointing and claiming to the rows, or to the columns. A digit whose places in
+    // a subgrid all lie in one line is removed from the rest of that line (pointing), and a digit
+    // whose places in a line all lie in one subgrid is removed from the rest of that subgrid (claiming).
+    private boolean lockedCandidates(boolean columns) {
+        for (int line = 0; line < gridSize; line++) {
+            for (int part = 0; part < subgridSize; part++) {
+                int union = 0;
+                for (int i = 0; i < subgridSize; i++) {
+                    union |= candidates[cellAt(columns, line, part * subgridSize + i)];
+                }
+                segments[line][part] = union;
+            }
+        }
+        for (int line = 0; line < gridSize; line++) {
+            int firstLine = line - line % subgridSize; // First line crossing the same subgrids
+            for (int part = 0; part < subgridSize; part++) {
+                int segment = segments[line][part];
+                int lineRest = 0;
+                int boxRest = 0;
+                for (int i = 0; i < subgridSize; i++) {
+                    if (i != part) {
+                        lineRest |= segments[line][i];
+                    }
+                    if (firstLine + i != line) {
+                        boxRest |= segments[firstLine + i][part];
+                    }
+                }
+                int pointing = segment & ~boxRest & lineRest;
+                int claiming = segment & ~lineRest & boxRest;
+                boolean changed = false;
+                if (pointing != 0) {
+                    for (int pos = 0; pos < gridSize; pos++) {
+                        if (pos / subgridSize != part) {
+                            changed |= eliminate(cellAt(columns, line, pos), pointing);
+                        }
+                    }
+                }
+                technique = changed ? "Pointing" : "Claiming";
+                if (claiming != 0) {
+                    for (int i = 0; i < subgridSize; i++) {
+                        if (firstLine + i != line) {
+                            for (int j = 0; j < subgridSize; j++) {
+                                changed |= eliminate(cellAt(columns, firstLine + i, part * subgridSize + j), claiming);
+                            }
+                        }
+                    }
+                }
+                if (changed) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Method to apply naked and hidden subsets of the given size in every unit
+    private boolean subsets(int size) {
+        for (int unit = 0; unit < unitCount; unit++) {
+            int[] unitCells = cellsOfUnit[unit];
+
+            // Naked subsets: size cells whose candidates together are only size digits
+            for (int pos = 0; pos < gridSize; pos++) {
+                masks[pos] = candidates[unitCells[pos]];
+            }
+            if (findSubset(unit, false, size, 0, 0, 0, 0)) {
+                return true;
+            }
+
+            // Hidden subsets: size digits whose places together are only size cells
+            for (int digit = 0; digit < gridSize; digit++) {
+                int places = 0;
+                for (int pos = 0; pos < gridSize; pos++) {
+                    if ((candidates[unitCells[pos]] & (1 << digit)) != 0) {
+                        places |= 1 << pos;
+                    }
+                }
+                masks[digit] = places;
+            }
+            if (findSubset(unit, true, size, 0, 0, 0, 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Method to search masks for size entries whose union has exactly size bits, and to apply the
+    // first one that removes a candidate. For naked subsets the entries are cells and the union is
+    // digits; for hidden subsets the entries are digits and the union is cells.
+    private boolean findSubset(int unit, boolean hidden, int size, int start, int chosenCount, int chosen, int union) {
+        if (chosenCount == size) {
+            if (Integer.bitCount(union) != size) {
+                return false;
+            }
+            int[] unitCells = cellsOfUnit[unit];
+            boolean changed = false;
+            for (int pos = 0; pos < gridSize; pos++) {
+                if (hidden && (union & (1 << pos)) != 0) {
+                    changed |= eliminate(unitCells[pos], allDigits & ~chosen); // Only the subset's digits stay
+                } else if (!hidden && (chosen & (1 << pos)) == 0) {
+                    changed |= eliminate(unitCells[pos], union); // Other cells lose the subset's digits
+                }
+            }
+            technique = (hidden ? "Hidden " : "Naked ") + (size == 2 ? "pair" : "triple");
+            return changed;
+        }
+        for (int i = start; i < gridSize; i++) {
+            int mask = masks[i];
+            if (mask == 0 || Integer.bitCount(mask) > size) {
+                continue; // Filled cells, placed digits and entries that are too large never take part
+            }
+            int newUnion = union | mask;
+            if (Integer.bitCount(newUnion) <= size
+                    && findSubset(unit, hidden, size, i + 1, chosenCount + 1, chosen | (1 << i), newUnion)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Method to apply X-Wing with rows as base lines, or with columns. When a digit can only go in
+    // the same two places in two lines, it is removed from those places in every other line.
+    private boolean xWing(boolean columns) {
+        for (int digit = 0; digit < gridSize; digit++) {
+            int bit = 1 << digit;
+            for (int line = 0; line < gridSize; line++) {
+                int places = 0;
+                for (int pos = 0; pos < gridSize; pos++) {
+                    if ((candidates[cellAt(columns, line, pos)] & bit) != 0) {
+                        places |= 1 << pos;
+                    }
+                }
+                masks[line] = places;
+            }
+            for (int first = 0; first < gridSize; first++) {
+                if (Integer.bitCount(masks[first]) != 2) {
+                    continue;
+                }
+                for (int second = first + 1; second < gridSize; second++) {
+                    if (masks[second] != masks[first]) {
+                        continue;
+                    }
+                    boolean changed = false;
+                    for (int line = 0; line < gridSize; line++) {
+                        if (line != first && line != second) {
+                            for (int bits = masks[first]; bits != 0; bits &= bits - 1) {
+                                changed |= eliminate(cellAt(columns, line, Integer.numberOfTrailingZeros(bits)), bit);
+                            }
+                        }
+                    }
+                    if (changed) {
+                        technique = "X-Wing";
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // Method to get the cell at a position of a row, or of a column
+    private int cellAt(boolean columns, int line, int pos) {
+        return columns ? pos * gridSize + line : line * gridSize + pos;
+    }
+
+    // Method to remove candidates from a cell; returns true if any was removed
+    private boolean eliminate(int cell, int bits) {
+        if ((candidates[cell] & bits) == 0) {
+            return false;
+        }
+        candidates[cell] &= ~bits;
+        if (candidates[cell] == 0) {
+            contradiction = true; // Only a puzzle without a solution gets here
+        }
+        return true;
+    }
+
+    // Method to place a number in a cell and remove it from the candidates of the cell's units
+    private void place(int cell, int num) {
+        int bit = 1 << (num - 1);
+        values[cell] = num;
+        candidates[cell] = 0;
+        emptyCells--;
+        for (int unit : unitsOfCell[cell]) {
+            placed[unit] |= bit;
+            for (int peer : cellsOfUnit[unit]) {
+                if (values[peer] == 0) {
+                    eliminate(peer, bit);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package mindgrid;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// Set of 128-bit fingerprints, such as those of CanonicalForm, kept off the Java heap. The
+// set is split into shards by the top bits of the fingerprint; every shard is an open
+// addressing table with linear probing in one direct buffer that doubles when it is three
+// quarters full. A slot is the 16 bytes of a fingerprint, so tens of millions of entries take
+// a few hundred megabytes outside the heap and nothing for the garbage collector to scan.
+// Shards are locked separately, so many threads can add fingerprints at once.
+public class FingerprintIndex {
+    private static final int SHARD_BITS = 4;
+    private static final int SLOT_SIZE = 16; // Two longs per fingerprint
+    private static final int MIN_SLOTS = 1 << 10; // Slots of a new shard
+    private static final int MAX_SLOTS = 1 << 26; // Slots of a full-size shard, one gigabyte
+
+    private final Shard[] shards = new Shard[1 << SHARD_BITS];
+
+    // Class to hold one open addressing table
+    private static class Shard {
+        ByteBuffer slots;
+        int mask; // Number of slots minus one
+        int size; // Fingerprints in the table
+
+        Shard(int slotCount) {
+            slots = ByteBuffer.allocateDirect(slotCount * SLOT_SIZE).order(ByteOrder.nativeOrder());
+            mask = slotCount - 1;
+        }
+    }
+
+    // Constructor for an index that grows as needed
+    public FingerprintIndex() {
+        this(0);
+    }
+
+    // Constructor for an index sized for the expected number of fingerprints, so it does not have to grow
+    public FingerprintIndex(long expectedCount) {
+        long perShard = expectedCount / shards.length * 4 / 3 + 1; // Room to stay under three quarters full
+        int slotCount = MIN_SLOTS;
+        while (slotCount < perShard && slotCount < MAX_SLOTS) {
+            slotCount <<= 1;
+        }
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(slotCount);
+        }
+    }
+
+    // Method to add a fingerprint; returns false if it was already in the index
+    public boolean add(long high, long low) {
+        if (high == 0 && low == 0) {
+            low = 1; // All zeros marks an empty slot
+        }
+        Shard shard = shards[(int) (high >>> 64 - SHARD_BITS)];
+        synchronized (shard) {
+            int slot = find(shard, high, low);
+            if (slot >= 0) {
+                return false;
+            }
+            if (shard.size >= (shard.mask + 1) / 4 * 3) {
+                grow(shard);
+                slot = find(shard, high, low);
+            }
+            int offset = ~slot * SLOT_SIZE;
+            shard.slots.putLong(offset, high);
+            shard.slots.putLong(offset + 8, low);
+            shard.size++;
+            return true;
+        }
+    }
+
+    // Method to check whether a fingerprint is in the index
+    public boolean contains(long high, long low) {
+        if (high == 0 && low == 0) {
+            low = 1;
+        }
+        Shard shard = shards[(int) (high >>> 64 - SHARD_BITS)];
+        synchronized (shard) {
+            return find(shard, high, low) >= 0;
+        }
+    }
+
+    // Method to get the number of fingerprints in the index
+    public long size() {
+        long size = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                size += shard.size;
+            }
+        }
+        return size;
+    }
+
+    // Method to get the number of bytes reserved outside the heap
+    public long getReservedBytes() {
+        long bytes = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                bytes += shard.slots.capacity();
+            }
+        }
+        return bytes;
+    }
+
+    // Method to find the slot holding a fingerprint, or the complement of the empty slot where it belongs
+    private static int find(Shard shard, long high, long low) {
+        ByteBuffer slots = shard.slots;
+        int slot = (int) high & shard.mask; // The low bits of high are not used to pick the shard
+        while (true) {
+            int offset = slot * SLOT_SIZE;
+            long slotHigh = slots.getLong(offset);
+            long slotLow = slots.getLong(offset + 8);
+            if (slotHigh == high && slotLow == low) {
+                return slot;
+            }
+            if (slotHigh == 0 && slotLow == 0) {
+                return ~slot;
+            }
+            slot = slot + 1 & shard.mask;
+        }
+    }
+
+    // Method to move a shard to a table twice the size
+    private static void grow(Shard shard) {
+        int slotCount = shard.mask + 1;
+        if (slotCount >= MAX_SLOTS) {
+            if (shard.size < slotCount - slotCount / 16) {
+                return; // Keep filling the largest table up to fifteen sixteenths
+            }
+            throw new IllegalStateException("Fingerprint index is full");
+        }
+        ByteBuffer old = shard.slots;
+        shard.slots = ByteBuffer.allocateDirect(slotCount * 2 * SLOT_SIZE).order(ByteOrder.nativeOrder());
+        shard.mask = slotCount * 2 - 1;
+        for (int offset = 0; offset < old.capacity(); offset += SLOT_SIZE) {
+            long high = old.getLong(offset);
+            long low = old.getLong(offset + 8);
+            if (high != 0 || low != 0) {
+                int slot = ~find(shard, high, low);
+                shard.slots.putLong(slot * SLOT_SIZE, high);
+                shard.slots.putLong(slot * SLOT_SIZE + 8, low);
+            }
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package mindgrid;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Autosave of a game in progress: a snapshot in the SavedGame format plus an append-only journal
+// next to it that records every cell edit in RECORD_SIZE bytes, so a move costs a tiny append
+// instead of rewriting the whole game. Records are collected in memory and written and synced
+// in batches on the shared clock thread, at the latest a second after a move, so a crash loses
+// at most the last second of play. Compacting writes a new snapshot and empties the journal;
+// resuming replays the journal on top of the snapshot.
+//
+// Journal record layout (big-endian): cell (short, row * grid size + column), value (byte,
+// 0 = empty), check byte, elapsed seconds (int). A record sets a cell rather than describing
+// a change, so replaying records that are already in the snapshot does no harm. Replay stops
+// at the first incomplete or damaged record, the tail of a write cut short by a crash.
+// Only the MAX_AUTOSAVES most recently changed autosaves are kept; see pruneAutosaves.
+public class GameJournal implements Closeable {
+    static final int RECORD_SIZE = 8;
+    private static final int BATCH_SIZE = 16; // Records that trigger a write without waiting for the next tick
+    private static final String SNAPSHOT_SUFFIX = ".mgs";
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final int CHECK_SEED = 0xA5;
+    private static final int MAX_AUTOSAVES = 10; // Unfinished games kept for Resume Game, the most recent first
+
+    // Directory for autosaves; override with -Dmindgrid.autosave=DIRECTORY
+    private static final Path AUTOSAVE_DIRECTORY = Paths.get(System.getProperty("mindgrid.autosave",
+            Paths.get(System.getProperty("user.home"), ".mindgrid", "autosave").toString()));
+
+    private final Path snapshotFile; // Snapshot of the game
+    private final Path journalFile; // Edits since the snapshot
+    private final FileChannel channel; // Journal, written at its end
+    private final int gridSize; // Number of rows, columns and digits of the game
+    private final Object writeLock = new Object(); // Keeps batches in order
+    private ByteBuffer pending = ByteBuffer.allocate(BATCH_SIZE * RECORD_SIZE); // Records not written yet
+    private boolean writeScheduled; // Whether a batch write is already waiting on the clock thread
+
+    // Constructor used by start
+    private GameJournal(Path snapshotFile, FileChannel channel, int gridSize) {
+        this.snapshotFile = snapshotFile;
+        this.journalFile = journalFileOf(snapshotFile);
+        this.channel = channel;
+        this.gridSize = gridSize;
+    }
+
+    // Method to get a new snapshot file name in the autosave directory
+    public static Path newAutosaveFile() throws IOException {
+        Files.createDirectories(AUTOSAVE_DIRECTORY);
+        return Files.createTempFile(AUTOSAVE_DIRECTORY, "game-", SNAPSHOT_SUFFIX);
+    }
+
+    // Method to find the most recently changed autosave that is not one of the given ones, or null if there is none
+    public static Path latestAutosave(Iterable<Path> excluded) throws IOException {
+        if (!Files.isDirectory(AUTOSAVE_DIRECTORY)) {
+            return null;
+        }
+        Path latest = null;
+        long latestTime = Long.MIN_VALUE;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(AUTOSAVE_DIRECTORY, "*" + SNAPSHOT_SUFFIX)) {
+            for (Path file : files) {
+                if (isExcluded(file, excluded) || Files.size(file) == 0) {
+                    continue; // Open in a window, or a name that was reserved but never written
+                }
+                long time = lastChange(file);
+                if (time > latestTime) {
+                    latest = file;
+                    latestTime = time;
+                }
+            }
+        }
+        return latest;
+    }
+
+    // Method to delete every autosave but the MAX_AUTOSAVES most recently changed ones, and names that were
+    // reserved but never written, leaving the given autosaves alone
+    public static void pruneAutosaves(Iterable<Path> excluded) throws IOException {
+        if (!Files.isDirectory(AUTOSAVE_DIRECTORY)) {
+            return;
+        }
+        List<Path> autosaves = new ArrayList<>();
+        Map<Path, Long> times = new HashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(AUTOSAVE_DIRECTORY, "*" + SNAPSHOT_SUFFIX)) {
+            for (Path file : files) {
+                if (isExcluded(file, excluded)) {
+                    continue; // Open in a window
+                }
+                if (Files.size(file) == 0) {
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                autosaves.add(file);
+                times.put(file, lastChange(file));
+            }
+        }
+        autosaves.sort((a, b) -> Long.compare(times.get(b), times.get(a))); // Most recently changed first
+        for (int i = MAX_AUTOSAVES; i < autosaves.size(); i++) {
+            Files.deleteIfExists(journalFileOf(autosaves.get(i)));
+            Files.deleteIfExists(autosaves.get(i));
+        }
+    }
+
+    // Method to get the time an autosave last changed, whichever of its snapshot and journal is newer
+    private static long lastChange(Path snapshotFile) throws IOException {
+        Path journal = journalFileOf(snapshotFile);
+        return Math.max(Files.getLastModifiedTime(snapshotFile).toMillis(),
+                Files.exists(journal) ? Files.getLastModifiedTime(journal).toMillis() : Long.MIN_VALUE);
+    }
+
+    // Method to write a snapshot of the game and start an empty journal after it
+    public static GameJournal start(Path snapshotFile, SavedGame game) throws IOException {
+        game.writeTo(snapshotFile); // Replaced in one atomic rename, so the old snapshot and journal stay valid until here
+        FileChannel channel = FileChannel.open(journalFileOf(snapshotFile), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        channel.force(true);
+        return new GameJournal(snapshotFile, channel, game.getPuzzle().length);
+    }
+
+    // Method to read a snapshot and replay its journal, adding the replayed moves to the history if one is given
+    public static SavedGame replay(Path snapshotFile, MoveHistory history) throws IOException {
+        SavedGame game = SavedGame.readFrom(snapshotFile);
+        Path journalFile = journalFileOf(snapshotFile);
+        if (!Files.exists(journalFile)) {
+            return game;
+        }
+        int[][] puzzle = game.getPuzzle();
+        int[][] entries = game.getEntries();
+        int gridSize = puzzle.length;
+        int secondsElapsed = game.getSecondsElapsed();
+        ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(journalFile));
+        while (records.remaining() >= RECORD_SIZE) {
+            int cell = records.getShort() & 0xFFFF;
+            int value = records.get() & 0xFF;
+            int check = records.get() & 0xFF;
+            int seconds = records.getInt();
+            if (check != check(cell, value, seconds) || cell >= gridSize * gridSize || value > gridSize
+                    || puzzle[cell / gridSize][cell % gridSize] != 0) {
+                break; // Damaged tail
+            }
+            int row = cell / gridSize;
+            int col = cell % gridSize;
+            if (history != null && entries[row][col] != value) {
+                history.record(row, col, entries[row][col], value);
+            }
+            entries[row][col] = value;
+            secondsElapsed = Math.max(secondsElapsed, seconds);
+        }
+        return new SavedGame(puzzle, game.getSolution(), entries, secondsElapsed, game.isColorCodingEnabled(),
+                game.getBackgroundColor());
+    }
+
+    // Method to get the snapshot file of this autosave
+    public Path getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    // Method to record that a cell was set to a value, 0 to clear it
+    public void append(int row, int col, int value, int secondsElapsed) {
+        int cell = row * gridSize + col;
+        synchronized (this) {
+            if (!pending.hasRemaining()) {
+                ByteBuffer larger = ByteBuffer.allocate(pending.capacity() * 2); // The clock thread is behind
+                pending.flip();
+                larger.put(pending);
+                pending = larger;
+            }
+            pending.putShort((short) cell);
+            pending.put((byte) value);
+            pending.put((byte) check(cell, value, secondsElapsed));
+            pending.putInt(secondsElapsed);
+            if (pending.position() >= BATCH_SIZE * RECORD_SIZE) {
+                scheduleWrite();
+            }
+        }
+    }
+
+    // Method to write the pending records in the background, called every second
+    public synchronized void writeLater() {
+        if (pending.position() > 0) {
+            scheduleWrite();
+        }
+    }
+
+    // Method to write the pending records now and wait until they are on disk
+    public void flush() throws IOException {
+        synchronized (writeLock) {
+            ByteBuffer batch;
+            synchronized (this) {
+                writeScheduled = false;
+                if (pending.position() == 0) {
+                    return;
+                }
+                batch = pending;
+                batch.flip();
+                pending = ByteBuffer.allocate(BATCH_SIZE * RECORD_SIZE);
+            }
+            while (batch.hasRemaining()) {
+                channel.write(batch);
+            }
+            channel.force(false);
+        }
+    }
+
+    // Method to replace the snapshot with the given state of the game and empty the journal
+    public void compact(SavedGame game) throws IOException {
+        synchronized (writeLock) {
+            synchronized (this) {
+                pending.clear(); // Already part of the new snapshot
+            }
+            game.writeTo(snapshotFile);
+            channel.truncate(0);
+            channel.force(true);
+        }
+    }
+
+    // Method to close the journal and remove the autosave, e.g. once the game is over
+    public void delete() throws IOException {
+        close();
+        Files.deleteIfExists(journalFile);
+        Files.deleteIfExists(snapshotFile);
+    }
+
+    // Method to write the pending records and close the journal
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    // Method to queue a write of the pending records on the clock thread, unless one is queued already
+    private void scheduleWrite() {
+        if (!writeScheduled) {
+            writeScheduled = true;
+            SessionRegistry.get().runInBackground(() -> {
+                try {
+                    flush();
+                } catch (IOException e) {
+                    e.printStackTrace(); // The moves stay in the game; only the autosave falls behind
+                }
+            });
+        }
+    }
+
+    // Method to compute the check byte of a record
+    private static int check(int cell, int value, int seconds) {
+        return (CHECK_SEED ^ (cell >>> 8) ^ cell ^ value ^ (seconds >>> 24) ^ (seconds >>> 16) ^ (seconds >>> 8) ^ seconds) & 0xFF;
+    }
+
+    // Method to get the journal file that belongs to a snapshot
+    private static Path journalFileOf(Path snapshotFile) {
+        return snapshotFile.resolveSibling(snapshotFile.getFileName() + JOURNAL_SUFFIX);
+    }
+
+    // Method to check whether a file is one of the excluded files
+    private static boolean isExcluded(Path file, Iterable<Path> excluded) throws IOException {
+        for (Path other : excluded) {
+            if (Files.exists(other) && Files.isSameFile(file, other)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,253 @@
+package mindgrid;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters and timers for puzzle generation, shared by every PuzzleGenerator in the process.
+// Generators add their numbers once per puzzle, and only while collection is enabled, so with
+// collection off the hot path pays for one volatile read per puzzle. The solver engines count
+// nodes and backtracks in plain fields either way.
+//
+// Collection is off unless -Dmindgrid.metrics=true is set; it can also be switched through JMX.
+// Once collection is on, with -Dmindgrid.metrics.csv=FILE a row is appended to FILE every
+// -Dmindgrid.metrics.interval seconds (60 by default), and a summary line is logged at the same
+// interval; the dump starts with the first switch-on, at launch or later through JMX.
+public class GenerationMetrics implements GenerationMetricsMXBean {
+    private static final String OBJECT_NAME = "mindgrid:type=GenerationMetrics";
+    private static final String[] PHASES = {"fill", "dig", "verify"};
+    private static final GenerationMetrics INSTANCE = new GenerationMetrics();
+
+    private static volatile boolean enabled = Boolean.getBoolean("mindgrid.metrics"); // Read on every generation
+
+    private final LongAdder puzzles = new LongAdder();
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder uniquenessChecks = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder backtracks = new LongAdder();
+    private final LatencyHistogram[] phases = new LatencyHistogram[PHASES.length]; // Time per puzzle in each phase
+    private final Map<Difficulty, LatencyHistogram> latencies = new EnumMap<>(Difficulty.class); // Total time per puzzle
+    private ScheduledExecutorService dumper; // Writes the periodic log lines and CSV rows, or null
+
+    // Constructor used for the single instance
+    private GenerationMetrics() {
+        for (int i = 0; i < PHASES.length; i++) {
+            phases[i] = new LatencyHistogram();
+        }
+        for (Difficulty difficulty : Difficulty.values()) {
+            latencies.put(difficulty, new LatencyHistogram());
+        }
+    }
+
+    // Method to get the metrics of this process
+    public static GenerationMetrics get() {
+        return INSTANCE;
+    }
+
+    // Method for the hot path to check whether to measure at all
+    static boolean isCollecting() {
+        return enabled;
+    }
+
+    // Method to register the MBean and start the periodic dump configured by the system properties
+    public static synchronized void install() {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, name);
+            }
+        } catch (JMException e) {
+            e.printStackTrace(); // Metrics stay available in the process, just not over JMX
+        }
+        if (enabled) {
+            startDumpOnce();
+        }
+    }
+
+    // Method to start the periodic dump configured by the system properties, unless it is running already
+    private static synchronized void startDumpOnce() {
+        if (INSTANCE.dumper == null) {
+            String csv = System.getProperty("mindgrid.metrics.csv");
+            long interval = Long.getLong("mindgrid.metrics.interval", 60);
+            INSTANCE.startDump(csv == null ? null : Paths.get(csv), interval);
+        }
+    }
+
+    // Method called by a generator after each puzzle with the numbers it measured
+    void record(Difficulty difficulty, int attemptCount, int checkCount, long nodeCount, long backtrackCount,
+                long fillNanos, long digNanos, long verifyNanos, long totalNanos) {
+        puzzles.increment();
+        attempts.add(attemptCount);
+        uniquenessChecks.add(checkCount);
+        nodes.add(nodeCount);
+        backtracks.add(backtrackCount);
+        phases[0].recordNanos(fillNanos);
+        phases[1].recordNanos(digNanos);
+        phases[2].recordNanos(verifyNanos);
+        latencies.get(difficulty).recordNanos(totalNanos);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        GenerationMetrics.enabled = enabled;
+        if (enabled) {
+            startDumpOnce(); // Collection switched on through JMX also gets its log lines and CSV rows
+        }
+    }
+
+    @Override
+    public long getPuzzlesGenerated() {
+        return puzzles.sum();
+    }
+
+    @Override
+    public long getAttempts() {
+        return attempts.sum();
+    }
+
+    @Override
+    public long getUniquenessChecks() {
+        return uniquenessChecks.sum();
+    }
+
+    @Override
+    public long getNodesVisited() {
+        return nodes.sum();
+    }
+
+    @Override
+    public long getBacktracks() {
+        return backtracks.sum();
+    }
+
+    @Override
+    public Map<String, Double> getPhaseMeanMillis() {
+        Map<String, Double> means = new LinkedHashMap<>();
+        for (int i = 0; i < PHASES.length; i++) {
+            means.put(PHASES[i], phases[i].getMean() / 1000.0);
+        }
+        return means;
+    }
+
+    @Override
+    public Map<String, Long> getPuzzlesByDifficulty() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Map.Entry<Difficulty, LatencyHistogram> entry : latencies.entrySet()) {
+            counts.put(entry.getKey().toString(), entry.getValue().getCount());
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Double> getLatencyP50Millis() {
+        return percentiles(50);
+    }
+
+    @Override
+    public Map<String, Double> getLatencyP99Millis() {
+        return percentiles(99);
+    }
+
+    @Override
+    public void reset() {
+        puzzles.reset();
+        attempts.reset();
+        uniquenessChecks.reset();
+        nodes.reset();
+        backtracks.reset();
+        for (LatencyHistogram phase : phases) {
+            phase.reset();
+        }
+        for (LatencyHistogram latency : latencies.values()) {
+            latency.reset();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("GenerationMetrics[puzzles=%d, attempts=%d, checks=%d, nodes=%d, backtracks=%d, "
+                        + "phase mean ms=%s, p50 ms=%s, p99 ms=%s]",
+                getPuzzlesGenerated(), getAttempts(), getUniquenessChecks(), getNodesVisited(), getBacktracks(),
+                getPhaseMeanMillis(), getLatencyP50Millis(), getLatencyP99Millis());
+    }
+
+    // Method to get a percentile of the generation time of each difficulty in milliseconds
+    private Map<String, Double> percentiles(double percentile) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (Map.Entry<Difficulty, LatencyHistogram> entry : latencies.entrySet()) {
+            values.put(entry.getKey().toString(), entry.getValue().getPercentile(percentile) / 1000.0);
+        }
+        return values;
+    }
+
+    // Method to log a summary and append a CSV row at a fixed interval
+    private void startDump(Path csv, long intervalSeconds) {
+        dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleAtFixedRate(() -> {
+            System.out.println(this);
+            if (csv != null) {
+                try {
+                    appendRow(csv);
+                } catch (IOException e) {
+                    e.printStackTrace(); // Try again at the next interval
+                }
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    // Method to append one row with the current values to a CSV file, writing the header to a new file
+    private void appendRow(Path csv) throws IOException {
+        boolean newFile = !Files.exists(csv) || Files.size(csv) == 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (newFile) {
+                StringBuilder header = new StringBuilder("timestamp,puzzles,attempts,uniqueness_checks,nodes,backtracks");
+                for (String phase : PHASES) {
+                    header.append(',').append(phase).append("_mean_ms");
+                }
+                for (Difficulty difficulty : Difficulty.values()) {
+                    String name = difficulty.name().toLowerCase();
+                    header.append(',').append(name).append("_count,").append(name).append("_p50_ms,")
+                            .append(name).append("_p99_ms");
+                }
+                writer.write(header.toString());
+                writer.newLine();
+            }
+            StringBuilder row = new StringBuilder();
+            row.append(System.currentTimeMillis()).append(',').append(getPuzzlesGenerated()).append(',')
+                    .append(getAttempts()).append(',').append(getUniquenessChecks()).append(',')
+                    .append(getNodesVisited()).append(',').append(getBacktracks());
+            for (LatencyHistogram phase : phases) {
+                row.append(',').append(phase.getMean() / 1000.0);
+            }
+            for (LatencyHistogram latency : latencies.values()) {
+                row.append(',').append(latency.getCount())
+                        .append(',').append(latency.getPercentile(50) / 1000.0)
+                        .append(',').append(latency.getPercentile(99) / 1000.0);
+            }
+            writer.write(row.toString());
+            writer.newLine();
+        }
+    }
+}
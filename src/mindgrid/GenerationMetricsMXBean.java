@@ -0,0 +1,42 @@
+package mindgrid;
+
+import java.util.Map;
+
+// Management interface of GenerationMetrics, registered as mindgrid:type=GenerationMetrics
+public interface GenerationMetricsMXBean {
+    // Method to check whether metrics are being collected
+    boolean isEnabled();
+
+    // Method to switch collection on or off
+    void setEnabled(boolean enabled);
+
+    // Method to get the number of puzzles generated while collection was on
+    long getPuzzlesGenerated();
+
+    // Method to get the number of solution grids the generator started from, retries included
+    long getAttempts();
+
+    // Method to get the number of uniqueness checks
+    long getUniquenessChecks();
+
+    // Method to get the number of search nodes the solvers visited
+    long getNodesVisited();
+
+    // Method to get the number of search nodes that ended in a dead end
+    long getBacktracks();
+
+    // Method to get the mean time per puzzle spent in each phase (fill, dig, verify) in milliseconds
+    Map<String, Double> getPhaseMeanMillis();
+
+    // Method to get the number of puzzles of each difficulty
+    Map<String, Long> getPuzzlesByDifficulty();
+
+    // Method to get the median generation time of each difficulty in milliseconds
+    Map<String, Double> getLatencyP50Millis();
+
+    // Method to get the 99th percentile generation time of each difficulty in milliseconds
+    Map<String, Double> getLatencyP99Millis();
+
+    // Method to clear all counters and histograms
+    void reset();
+}
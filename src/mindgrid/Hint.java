@@ -0,0 +1,59 @@
+package mindgrid;
+
+// Class to hold a hint: a cell, the number that belongs there and how to find it. A hint for
+// a wrong entry points at the cell and holds the number the player entered instead.
+public class Hint {
+    static final String WRONG_ENTRY = "Wrong entry";
+
+    private final int row; // Row of the cell
+    private final int col; // Column of the cell
+    private final int digit; // Number that belongs in the cell, or the wrong number it holds
+    private final String technique; // How the number is found, or WRONG_ENTRY
+
+    // Constructor to initialize the hint
+    public Hint(int row, int col, int digit, String technique) {
+        this.row = row;
+        this.col = col;
+        this.digit = digit;
+        this.technique = technique;
+    }
+
+    // Getter method for the row of the cell
+    public int getRow() {
+        return row;
+    }
+
+    // Getter method for the column of the cell
+    public int getCol() {
+        return col;
+    }
+
+    // Getter method for the number
+    public int getDigit() {
+        return digit;
+    }
+
+    // Getter method for the technique that finds the number
+    public String getTechnique() {
+        return technique;
+    }
+
+    // Method to check whether the hint points at a wrong entry instead of a deduction
+    public boolean isWrongEntry() {
+        return technique.equals(WRONG_ENTRY);
+    }
+
+    // Method to describe the hint for the player, with rows and columns counted from 1
+    public String getDescription() {
+        String cell = "Row " + (row + 1) + ", column " + (col + 1);
+        if (isWrongEntry()) {
+            return cell + ": the " + digit + " is wrong";
+        }
+        return cell + " is " + digit + " (" + technique + ")";
+    }
+
+    @Override
+    public String toString() {
+        return getDescription();
+    }
+}
@@ -0,0 +1,70 @@
+package mindgrid;
+
+// Finds the next hint for the board of a PuzzlePanel. Wrong entries are pointed out first;
+// otherwise the hint is the next number a person would place, found with the technique ladder
+// of DifficultyGrader starting from the candidates that BoardModel keeps up to date on every
+// edit. Candidates ruled out on the way are stored back in the model, so later hints never
+// repeat that work, and the last hint is kept until the board changes, so asking again is free.
+// Meant to be used on the event dispatch thread.
+public class HintEngine {
+    private final BoardModel model; // Board the hints are for
+    private final int gridSize; // Number of rows, columns and digits
+    private final DifficultyGrader grader; // Runs the technique ladder
+    private final int[] values; // Scratch copy of the values, in row-major order
+    private final int[] candidates; // Scratch copy of the candidates, in row-major order
+    private Hint lastHint; // Hint for the board at lastEditCount, or null if there was none
+    private long lastEditCount = -1; // Edit count of the model when lastHint was found
+
+    // Constructor to give hints for the given board
+    public HintEngine(BoardModel model) {
+        this.model = model;
+        this.gridSize = model.getGridSize();
+        this.grader = new DifficultyGrader((int) Math.round(Math.sqrt(gridSize)));
+        this.values = new int[gridSize * gridSize];
+        this.candidates = new int[gridSize * gridSize];
+    }
+
+    // Method to get the next hint, or null if the board is solved or the ladder finds no step
+    public Hint nextHint() {
+        if (model.getEditCount() == lastEditCount) {
+            return lastHint; // Nothing changed since the last hint
+        }
+        lastEditCount = model.getEditCount();
+        lastHint = findHint();
+        return lastHint;
+    }
+
+    // Method to find the hint for the current board
+    private Hint findHint() {
+        for (int row = 0; row < gridSize; row++) {
+            for (int col = 0; col < gridSize; col++) {
+                int value = model.get(row, col);
+                if (value != 0 && !model.isCorrect(row, col)) {
+                    return new Hint(row, col, value, Hint.WRONG_ENTRY); // Logic would build on the mistake
+                }
+            }
+        }
+        if (model.isSolved()) {
+            return null;
+        }
+        for (int row = 0; row < gridSize; row++) {
+            for (int col = 0; col < gridSize; col++) {
+                values[row * gridSize + col] = model.get(row, col);
+                candidates[row * gridSize + col] = model.getCandidates(row, col);
+            }
+        }
+        Hint hint = grader.findHint(values, candidates);
+        if (hint != null) {
+            // Keep what the ladder ruled out; the board has no wrong entries, so it holds for the solution
+            for (int row = 0; row < gridSize; row++) {
+                for (int col = 0; col < gridSize; col++) {
+                    int removed = model.getCandidates(row, col) & ~candidates[row * gridSize + col];
+                    if (removed != 0) {
+                        model.eliminate(row, col, removed);
+                    }
+                }
+            }
+        }
+        return hint;
+    }
+}
@@ -0,0 +1,87 @@
+package mindgrid;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Thread-safe histogram of latencies in microseconds. Values are kept in log-linear buckets with
+// 16 sub-buckets per power of two, so percentiles are accurate to about 6% at any scale and
+// recording is a single atomic increment without allocation.
+public class LatencyHistogram {
+    private static final int SUB_BUCKETS = 16; // Buckets per power of two
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int BUCKET_COUNT = SUB_BUCKETS + (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT); // Number of values in each bucket
+    private final LongAdder total = new LongAdder(); // Number of recorded values
+    private final LongAdder sum = new LongAdder(); // Sum of recorded values, for the mean
+
+    // Method to record a latency given in nanoseconds
+    public void recordNanos(long nanos) {
+        record(nanos / 1_000);
+    }
+
+    // Method to record a latency given in microseconds
+    public void record(long micros) {
+        long value = Math.max(0, micros);
+        counts.incrementAndGet(bucketOf(value));
+        total.increment();
+        sum.add(value);
+    }
+
+    // Method to get the number of recorded values
+    public long getCount() {
+        return total.sum();
+    }
+
+    // Method to get the mean latency in microseconds
+    public double getMean() {
+        long count = total.sum();
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    // Method to get the latency in microseconds below which the given percentage of values fall
+    public long getPercentile(double percentile) {
+        long count = total.sum();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return upperBoundOf(bucket);
+            }
+        }
+        return upperBoundOf(BUCKET_COUNT - 1);
+    }
+
+    // Method to clear all recorded values
+    public void reset() {
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            counts.set(bucket, 0);
+        }
+        total.reset();
+        sum.reset();
+    }
+
+    // Method to find the bucket of a value
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value; // Small values get a bucket each
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value); // At least SUB_BUCKET_BITS
+        int shift = exponent - SUB_BUCKET_BITS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    // Method to get the largest value that falls into a bucket
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        long mantissa = SUB_BUCKETS + (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
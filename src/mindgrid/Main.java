@@ -0,0 +1,42 @@
+package mindgrid;
+
+import javax.swing.*;
+import java.util.Arrays;
+
+public class Main {
+    public static void main(String[] args) {
+        GenerationMetrics.install(); // Expose the generation metrics over JMX, see GenerationMetrics for the options
+        if (args.length > 0 && args[0].equals("batch")) {
+            // Run the headless batch generator instead of the UI
+            BatchGenerator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("pack")) {
+            // Pack text files from the batch generator into a puzzle library
+            PuzzleLibraryWriter.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("solve")) {
+            // Solve and check a large file of puzzles instead of starting the UI
+            BulkSolver.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("server")) {
+            // Serve puzzles over HTTP to other front ends on this machine
+            PuzzleServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("loadtest")) {
+            // Measure the puzzle server under many concurrent requests
+            ServerLoadTest.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        SwingUtilities.invokeLater(() -> {
+            // Create an instance of SudokuApp
+            SudokuApp app = new SudokuApp();
+            // Make the app visible
+            app.setVisible(true);
+        });
+    }
+}
@@ -0,0 +1,90 @@
+package mindgrid;
+
+import java.util.ArrayDeque;
+
+// Undo and redo history of the cell edits in a game. Only the most recent MAX_MOVES moves
+// are kept, and any new move clears the redo history.
+public class MoveHistory {
+    private static final int MAX_MOVES = 10000;
+
+    private final ArrayDeque<Move> undoMoves = new ArrayDeque<>(); // Most recent move first
+    private final ArrayDeque<Move> redoMoves = new ArrayDeque<>(); // Most recently undone move first
+
+    // Class to hold one cell edit
+    public static class Move {
+        private final int row;
+        private final int col;
+        private final int oldValue; // Value before the edit, 0 for empty
+        private final int newValue; // Value after the edit, 0 for empty
+
+        Move(int row, int col, int oldValue, int newValue) {
+            this.row = row;
+            this.col = col;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+        }
+
+        // Getter method for the row of the cell
+        public int getRow() {
+            return row;
+        }
+
+        // Getter method for the column of the cell
+        public int getCol() {
+            return col;
+        }
+
+        // Getter method for the value before the edit
+        public int getOldValue() {
+            return oldValue;
+        }
+
+        // Getter method for the value after the edit
+        public int getNewValue() {
+            return newValue;
+        }
+    }
+
+    // Method to add a move made by the player
+    public void record(int row, int col, int oldValue, int newValue) {
+        undoMoves.push(new Move(row, col, oldValue, newValue));
+        if (undoMoves.size() > MAX_MOVES) {
+            undoMoves.removeLast(); // Forget the oldest move
+        }
+        redoMoves.clear();
+    }
+
+    // Method to take back the last move; returns null if there is none
+    public Move undo() {
+        Move move = undoMoves.poll();
+        if (move != null) {
+            redoMoves.push(move);
+        }
+        return move;
+    }
+
+    // Method to make the last undone move again; returns null if there is none
+    public Move redo() {
+        Move move = redoMoves.poll();
+        if (move != null) {
+            undoMoves.push(move);
+        }
+        return move;
+    }
+
+    // Method to check whether there is a move to undo
+    public boolean canUndo() {
+        return !undoMoves.isEmpty();
+    }
+
+    // Method to check whether there is a move to redo
+    public boolean canRedo() {
+        return !redoMoves.isEmpty();
+    }
+
+    // Method to forget all moves, e.g. after loading another game
+    public void clear() {
+        undoMoves.clear();
+        redoMoves.clear();
+    }
+}
@@ -0,0 +1,223 @@
+package mindgrid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Solver that counts solutions on a ForkJoinPool. The search tree is split at the first few
+// branching cells, each branch is counted by a BitmaskSolver on a pool thread, and all branches
+// share one solution counter so they stop as soon as the total reaches the limit. Proving that
+// a sparse grid is unique then uses every core. Solving a grid stays sequential.
+public class ParallelSolutionCounter implements SudokuSolver {
+    private static final int SPLIT_DEPTH = 3; // Number of branching cells that are forked into separate tasks
+
+    // Grid size and subgrid size
+    private final int subgridSize;
+    private final int gridSize;
+    private final int allDigits; // Bitmask with a bit set for every digit
+    private final int minEmptyCells; // Grids with fewer empty cells are counted sequentially
+
+    private final ForkJoinPool pool; // Pool running the branch tasks
+    private final ThreadLocal<BitmaskSolver> solvers; // One solver per pool thread
+    private final BitmaskSolver sequentialSolver; // Solver used for solve and for dense grids
+    private final LongAdder nodeCount = new LongAdder(); // Search nodes visited by all branches
+    private final LongAdder backtrackCount = new LongAdder(); // Search nodes of all branches that ended in a dead end
+
+    // Constructor for 9x9 grids that runs the branches on the common pool
+    public ParallelSolutionCounter() {
+        this(3, ForkJoinPool.commonPool());
+    }
+
+    // Constructor to run the branches on a specific pool, for grids of subgridSize x subgridSize subgrids
+    public ParallelSolutionCounter(int subgridSize, ForkJoinPool pool) {
+        this.sequentialSolver = new BitmaskSolver(subgridSize); // Also checks the subgrid size
+        this.subgridSize = subgridSize;
+        this.gridSize = subgridSize * subgridSize;
+        this.allDigits = (1 << gridSize) - 1;
+        this.minEmptyCells = gridSize * gridSize * 5 / 9; // 45 for a 9x9 grid
+        this.pool = pool;
+        this.solvers = ThreadLocal.withInitial(() -> new BitmaskSolver(subgridSize));
+    }
+
+    @Override
+    public int getSubgridSize() {
+        return subgridSize;
+    }
+
+    @Override
+    public boolean solve(int[][] grid, int[] digitOrder) {
+        long before = sequentialSolver.getNodeCount();
+        long backtracksBefore = sequentialSolver.getBacktrackCount();
+        boolean solved = sequentialSolver.solve(grid, digitOrder);
+        nodeCount.add(sequentialSolver.getNodeCount() - before);
+        backtrackCount.add(sequentialSolver.getBacktrackCount() - backtracksBefore);
+        return solved;
+    }
+
+    @Override
+    public boolean solve(Board board, int[] digitOrder) {
+        long before = sequentialSolver.getNodeCount();
+        long backtracksBefore = sequentialSolver.getBacktrackCount();
+        boolean solved = sequentialSolver.solve(board, digitOrder);
+        nodeCount.add(sequentialSolver.getNodeCount() - before);
+        backtrackCount.add(sequentialSolver.getBacktrackCount() - backtracksBefore);
+        return solved;
+    }
+
+    @Override
+    public int countSolutions(int[][] grid, int limit) {
+        int[][] gridCopy = new int[gridSize][gridSize];
+        int emptyCells = 0;
+        for (int row = 0; row < gridSize; row++) {
+            for (int col = 0; col < gridSize; col++) {
+                gridCopy[row][col] = grid[row][col]; // Create a copy of the grid
+                if (grid[row][col] == 0) {
+                    emptyCells++;
+                }
+            }
+        }
+        if (emptyCells < minEmptyCells) {
+            long before = sequentialSolver.getNodeCount();
+            long backtracksBefore = sequentialSolver.getBacktrackCount();
+            int count = sequentialSolver.countSolutions(gridCopy, limit); // Not worth splitting
+            nodeCount.add(sequentialSolver.getNodeCount() - before);
+            backtrackCount.add(sequentialSolver.getBacktrackCount() - backtracksBefore);
+            return count;
+        }
+        AtomicInteger found = new AtomicInteger(); // Solutions found by all branches together
+        pool.invoke(new BranchTask(gridCopy, 0, limit, found));
+        return Math.min(found.get(), limit);
+    }
+
+    @Override
+    public int countSolutions(Board board, int limit) {
+        if (board.getGridSize() != gridSize) {
+            throw new IllegalArgumentException("The board is not " + gridSize + "x" + gridSize);
+        }
+        int emptyCells = 0;
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (board.get(cell) == 0) {
+                emptyCells++;
+            }
+        }
+        if (emptyCells < minEmptyCells) {
+            long before = sequentialSolver.getNodeCount();
+            long backtracksBefore = sequentialSolver.getBacktrackCount();
+            int count = sequentialSolver.countSolutions(board, limit); // Not worth splitting, and reads the board as it is
+            nodeCount.add(sequentialSolver.getNodeCount() - before);
+            backtrackCount.add(sequentialSolver.getBacktrackCount() - backtracksBefore);
+            return count;
+        }
+        AtomicInteger found = new AtomicInteger();
+        pool.invoke(new BranchTask(board.toArray(), 0, limit, found)); // The branches need a grid of their own anyway
+        return Math.min(found.get(), limit);
+    }
+
+    @Override
+    public long getNodeCount() {
+        return nodeCount.sum();
+    }
+
+    @Override
+    public long getBacktrackCount() {
+        return backtrackCount.sum();
+    }
+
+    // Task that counts the solutions below one branch of the search tree; tasks are never serialized
+    @SuppressWarnings("serial")
+    private class BranchTask extends RecursiveAction {
+        private final int[][] grid; // Grid owned by this task
+        private final int depth; // Number of branching cells above this task
+        private final int limit;
+        private final AtomicInteger found;
+
+        BranchTask(int[][] grid, int depth, int limit, AtomicInteger found) {
+            this.grid = grid;
+            this.depth = depth;
+            this.limit = limit;
+            this.found = found;
+        }
+
+        @Override
+        protected void compute() {
+            if (found.get() >= limit) {
+                return; // Other branches already found enough solutions
+            }
+            if (depth >= SPLIT_DEPTH) {
+                BitmaskSolver solver = solvers.get();
+                long before = solver.getNodeCount();
+                long backtracksBefore = solver.getBacktrackCount();
+                solver.countSolutions(grid, limit, found); // Count this branch on the current thread
+                nodeCount.add(solver.getNodeCount() - before);
+                backtrackCount.add(solver.getBacktrackCount() - backtracksBefore);
+                return;
+            }
+
+            // Find the empty cell with the fewest candidates, placing forced cells on the way
+            int bestRow = -1;
+            int bestCol = -1;
+            int bestCandidates = 0;
+            while (true) {
+                bestRow = -1;
+                int bestCount = gridSize + 1;
+                for (int row = 0; row < gridSize && bestCount > 1; row++) {
+                    for (int col = 0; col < gridSize && bestCount > 1; col++) {
+                        if (grid[row][col] == 0) {
+                            int candidates = candidates(grid, row, col);
+                            int candidateCount = Integer.bitCount(candidates);
+                            if (candidateCount == 0) {
+                                backtrackCount.increment();
+                                return; // Dead end
+                            }
+                            if (candidateCount < bestCount) {
+                                bestCount = candidateCount;
+                                bestRow = row;
+                                bestCol = col;
+                                bestCandidates = candidates;
+                            }
+                        }
+                    }
+                }
+                if (bestRow < 0) {
+                    found.incrementAndGet(); // No empty cells left, so the grid is a solution
+                    return;
+                }
+                if (bestCount > 1) {
+                    break;
+                }
+                grid[bestRow][bestCol] = Integer.numberOfTrailingZeros(bestCandidates) + 1; // Only one choice
+            }
+
+            // Fork one task for every candidate of the branching cell
+            List<BranchTask> branches = new ArrayList<>(Integer.bitCount(bestCandidates));
+            for (int bits = bestCandidates; bits != 0; bits &= bits - 1) {
+                int[][] child = new int[gridSize][];
+                for (int row = 0; row < gridSize; row++) {
+                    child[row] = grid[row].clone();
+                }
+                child[bestRow][bestCol] = Integer.numberOfTrailingZeros(bits) + 1;
+                branches.add(new BranchTask(child, depth + 1, limit, found));
+            }
+            invokeAll(branches);
+        }
+    }
+
+    // Method to get the candidates of a cell as a bitmask by scanning its row, column and subgrid
+    private int candidates(int[][] grid, int row, int col) {
+        int used = 0;
+        int boxRow = row - row % subgridSize;
+        int boxCol = col - col % subgridSize;
+        for (int i = 0; i < gridSize; i++) {
+            used |= bit(grid[row][i]) | bit(grid[i][col]) | bit(grid[boxRow + i / subgridSize][boxCol + i % subgridSize]);
+        }
+        return allDigits & ~used;
+    }
+
+    // Method to get the bit of a number, or 0 for an empty cell
+    private static int bit(int num) {
+        return num == 0 ? 0 : 1 << (num - 1);
+    }
+}
@@ -0,0 +1,7 @@
+package mindgrid;
+
+// Interface for receiving progress updates from an asynchronous puzzle generation
+public interface ProgressListener {
+    // Method called after every attempt with the attempts made and the search nodes visited so far
+    void onProgress(int attempts, long nodesVisited);
+}
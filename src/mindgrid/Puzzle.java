@@ -0,0 +1,58 @@
+package mindgrid;
+
+// Class to hold a generated puzzle together with its solution
+public class Puzzle {
+    private final Board grid; // The puzzle, with 0 for empty cells
+    private final Board solution; // The solution of the puzzle
+    private final int hints; // Number of filled cells in the puzzle
+    private final Difficulty difficulty; // Grade of the puzzle, or null if it was not graded
+
+    // Constructor to initialize the puzzle with its solution and grade
+    public Puzzle(int[][] grid, int[][] solution, Difficulty difficulty) {
+        this(Board.of(grid), Board.of(solution), difficulty);
+    }
+
+    // Constructor to initialize the puzzle with its solution and grade; the boards are kept, not copied
+    public Puzzle(Board grid, Board solution, Difficulty difficulty) {
+        this.grid = grid;
+        this.solution = solution;
+        this.difficulty = difficulty;
+        int count = 0;
+        for (int cell = 0; cell < grid.getCellCount(); cell++) {
+            if (grid.get(cell) != 0) {
+                count++;
+            }
+        }
+        this.hints = count;
+    }
+
+    // Getter method for a copy of the puzzle grid
+    public int[][] getGrid() {
+        return grid.toArray();
+    }
+
+    // Getter method for a copy of the solution
+    public int[][] getSolution() {
+        return solution.toArray();
+    }
+
+    // Getter method for the puzzle board, which must not be changed
+    public Board getBoard() {
+        return grid;
+    }
+
+    // Getter method for the solution board, which must not be changed
+    public Board getSolutionBoard() {
+        return solution;
+    }
+
+    // Getter method for the number of hints
+    public int getHints() {
+        return hints;
+    }
+
+    // Getter method for the grade, null if the puzzle was not graded
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+}
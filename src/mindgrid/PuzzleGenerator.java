@@ -0,0 +1,395 @@
+package mindgrid;
+
+import java.time.Instant;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeoutException;
+import java.util.random.RandomGenerator;
+
+public class PuzzleGenerator {
+    private static final int MIN_HINTS_4X4 = 4; // No 4x4 puzzle with fewer clues has a unique solution
+    static final int MIN_HINTS_9X9 = 17; // No 9x9 puzzle with fewer clues has a unique solution
+    private static final int MIN_HINTS_16X16 = 55; // No 16x16 puzzle with fewer clues is known
+    private static final int MAX_DIG_GRIDS = 10_000; // Fresh grids digPuzzle tries before giving up on the target
+
+    // Modes for turning a full solution grid into a puzzle
+    public enum GenerationMode {
+        RANDOM_REMOVAL, // Remove all cells at once and start over if the puzzle is not unique
+        INCREMENTAL_DIG // Remove one cell at a time and put back only the cells that break uniqueness
+    }
+
+    private final Board solution; // Solution of the puzzle being generated, reused for every puzzle
+    private final Board puzzle; // Puzzle being generated, reused for every puzzle
+    private final int subgridSize; // Size of the subgrids, 3 for a 9x9 grid
+    private final int gridSize; // Number of rows, columns and digits
+    private final SudokuSolver fillSolver; // Engine used to fill the solution grid
+    private final SudokuSolver uniquenessSolver; // Engine used to check that a puzzle has a unique solution
+    private final DifficultyGrader grader; // Grades every generated puzzle
+    private Difficulty difficulty; // Grade of the last generated puzzle
+    private GenerationMode generationMode = GenerationMode.INCREMENTAL_DIG; // Mode used by generatePuzzle
+    private RandomGenerator random = new SplittableRandom(); // Source of randomness for filling and removing numbers
+
+    // Measurements of the puzzle being generated, taken only while GenerationMetrics is collecting
+    private boolean measuring; // Whether the current puzzle is being measured
+    private long startNanos; // Time the current puzzle was started
+    private long startNodes; // Node count of the solvers when the current puzzle was started
+    private long startBacktracks; // Backtrack count of the solvers when the current puzzle was started
+    private long fillNanos; // Time spent filling solution grids
+    private long verifyNanos; // Time spent in uniqueness checks
+    private int attempts; // Solution grids started from for the current puzzle
+    private int checks; // Uniqueness checks run
+
+    // Constructor that uses the default bitmask solver for 9x9 puzzles
+    public PuzzleGenerator() {
+        this(new BitmaskSolver());
+    }
+
+    // Constructor that uses the default bitmask solver for puzzles made of subgridSize x subgridSize subgrids
+    public PuzzleGenerator(int subgridSize) {
+        this(new BitmaskSolver(subgridSize));
+    }
+
+    // Constructor to use the same solver engine for filling and for uniqueness checks
+    public PuzzleGenerator(SudokuSolver solver) {
+        this(solver, solver);
+    }
+
+    // Constructor to use separate solver engines, e.g. a DancingLinksSolver for uniqueness checks
+    public PuzzleGenerator(SudokuSolver fillSolver, SudokuSolver uniquenessSolver) {
+        if (fillSolver.getSubgridSize() != uniquenessSolver.getSubgridSize()) {
+            throw new IllegalArgumentException("The solvers are for different grid sizes");
+        }
+        this.subgridSize = fillSolver.getSubgridSize();
+        this.gridSize = subgridSize * subgridSize;
+        this.fillSolver = fillSolver;
+        this.uniquenessSolver = uniquenessSolver;
+        this.grader = new DifficultyGrader(subgridSize);
+        this.solution = new Board(subgridSize);
+        this.puzzle = new Board(subgridSize);
+    }
+
+    // Method to generate a puzzle with a given number of hints
+    public int[][] generatePuzzle(int hints) {
+        generateBoard(hints);
+        return puzzle.toArray(); // A copy, the board is reused for the next puzzle
+    }
+
+    // Method to generate a puzzle with a given number of hints on the generator's own boards
+    private void generateBoard(int hints) {
+        checkHints(hints);
+        startMeasuring();
+        if (generationMode == GenerationMode.INCREMENTAL_DIG) {
+            digPuzzle(hints);
+        } else {
+            fillGrid(solution); // Generate a full grid solution
+            solution.copyTo(puzzle); // Copy the solution to the puzzle
+            removeNumbers(hints); // Remove numbers to create the puzzle
+            attempts++;
+            while (!hasUniqueSolution(puzzle)) { // Ensure the puzzle has a unique solution
+                solution.copyTo(puzzle);
+                removeNumbers(hints);
+                attempts++;
+            }
+        }
+        puzzle.markClues();
+        difficulty = grader.grade(puzzle); // Grade the puzzle by the techniques it needs
+        finishMeasuring();
+    }
+
+    // Method to generate the puzzle that belongs to a seed. The same seed and number of hints always give the
+    // same puzzle for the same grid size, generation mode and fill solver, so a puzzle can be shared or stored
+    // as its seed, and a slow case in a batch run can be generated again on its own. The source of
+    // randomness used by the other calls is left as it was.
+    public int[][] generatePuzzle(int hints, long seed) {
+        RandomGenerator previous = random;
+        random = new SplittableRandom(seed);
+        try {
+            return generatePuzzle(hints);
+        } finally {
+            random = previous;
+        }
+    }
+
+    // Method to generate the puzzle that belongs to a seed, together with its solution and grade
+    public Puzzle generate(int hints, long seed) {
+        RandomGenerator previous = random;
+        random = new SplittableRandom(seed);
+        try {
+            return generate(hints);
+        } finally {
+            random = previous;
+        }
+    }
+
+    // Method to generate a puzzle with a given number of hints, together with its solution and grade
+    public Puzzle generate(int hints) {
+        generateBoard(hints);
+        return new Puzzle(puzzle.copy(), solution.copy(), difficulty);
+    }
+
+    // Method to reset the attempt count and, if metrics are being collected, start measuring a puzzle
+    private void startMeasuring() {
+        attempts = 0; // Also reported to progress listeners
+        measuring = GenerationMetrics.isCollecting();
+        if (measuring) {
+            startNanos = System.nanoTime();
+            startNodes = getNodeCount();
+            startBacktracks = getBacktrackCount();
+            fillNanos = 0;
+            verifyNanos = 0;
+            checks = 0;
+        }
+    }
+
+    // Method to hand the measurements of the finished puzzle to the metrics
+    private void finishMeasuring() {
+        if (measuring) {
+            long totalNanos = System.nanoTime() - startNanos;
+            GenerationMetrics.get().record(difficulty, attempts, checks, getNodeCount() - startNodes,
+                    getBacktrackCount() - startBacktracks, fillNanos, totalNanos - fillNanos - verifyNanos,
+                    verifyNanos, totalNanos); // Whatever is not filling or verifying counts as digging
+            measuring = false;
+        }
+    }
+
+    // Method to dig a puzzle out of fresh solution grids until one reaches the requested number of hints.
+    // Few grids can be dug down to a low target, so after MAX_DIG_GRIDS grids the target counts as unreachable.
+    private void digPuzzle(int hints) {
+        do {
+            if (attempts == MAX_DIG_GRIDS) {
+                throw new IllegalArgumentException("No unique puzzle with " + hints + " hints was found in "
+                        + MAX_DIG_GRIDS + " grids; generatePuzzleAsync finds the closest one before a deadline");
+            }
+            fillGrid(solution); // Generate a full grid solution, a new one whenever the last got stuck above the target
+            solution.copyTo(puzzle); // Copy the solution to the puzzle
+            attempts++;
+        } while (digCells(hints, null, Long.MAX_VALUE) != hints);
+    }
+
+    // Method to remove cells one at a time in random order, putting back any cell whose removal breaks uniqueness.
+    // Stops early when the token is cancelled or the deadline passes; returns the number of clues left.
+    private int digCells(int hints, CancellationToken token, long deadlineMillis) {
+        int[] cells = new int[gridSize * gridSize];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = i;
+        }
+        shuffleArray(cells, random); // Visit the cells in random order
+        int remaining = cells.length;
+        for (int cell : cells) {
+            if (remaining == hints) {
+                break; // Target reached
+            }
+            if ((token != null && token.isCancelled()) || System.currentTimeMillis() >= deadlineMillis) {
+                break; // Out of time, the puzzle so far is still unique
+            }
+            int value = puzzle.get(cell);
+            puzzle.set(cell, 0); // Remove the number
+            if (hasUniqueSolution(puzzle)) {
+                remaining--;
+            } else {
+                puzzle.set(cell, value); // Put back the number that broke uniqueness
+            }
+        }
+        return remaining;
+    }
+
+    // Method to generate a puzzle on the common pool; see the overload taking an executor
+    public CompletableFuture<Puzzle> generatePuzzleAsync(int hints, Instant deadline, CancellationToken token, ProgressListener listener) {
+        return generatePuzzleAsync(hints, deadline, token, listener, ForkJoinPool.commonPool());
+    }
+
+    // Method to generate a puzzle on the given executor. If no unique puzzle with the requested number of
+    // hints turns up before the deadline, the future completes with the unique puzzle with the fewest clues
+    // found so far. Cancelling the token or the future stops the generation; a null token means only the
+    // future can cancel it. The generator must not be used by other threads until the future completes.
+    public CompletableFuture<Puzzle> generatePuzzleAsync(int hints, Instant deadline, CancellationToken cancellation,
+                                                         ProgressListener listener, Executor executor) {
+        checkHints(hints);
+        CancellationToken token = cancellation != null ? cancellation : new CancellationToken();
+        CompletableFuture<Puzzle> future = new CompletableFuture<>();
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                token.cancel(); // Stop the worker when the caller cancels the future
+            }
+        });
+        executor.execute(() -> {
+            try {
+                future.complete(generateUntil(hints, deadline.toEpochMilli(), token, listener));
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    // Method to dig puzzles out of fresh grids until one reaches the target, the deadline passes or the token is cancelled
+    private Puzzle generateUntil(int hints, long deadlineMillis, CancellationToken token, ProgressListener listener) throws TimeoutException {
+        long nodesBefore = getNodeCount();
+        startMeasuring();
+        Board bestPuzzle = new Board(subgridSize); // Unique puzzle with the fewest clues so far
+        Board bestSolution = new Board(subgridSize);
+        int bestHints = Integer.MAX_VALUE;
+        while (bestHints > hints && System.currentTimeMillis() < deadlineMillis) {
+            if (token.isCancelled()) {
+                throw new CancellationException("Puzzle generation was cancelled");
+            }
+            fillGrid(solution); // Generate a full grid solution
+            solution.copyTo(puzzle); // Copy the solution to the puzzle
+            attempts++;
+            int clues = digCells(hints, token, deadlineMillis);
+            if (clues < bestHints) {
+                puzzle.copyTo(bestPuzzle);
+                solution.copyTo(bestSolution);
+                bestHints = clues;
+            }
+            if (listener != null) {
+                listener.onProgress(attempts, getNodeCount() - nodesBefore); // Report progress after every attempt
+            }
+        }
+        if (token.isCancelled()) {
+            throw new CancellationException("Puzzle generation was cancelled");
+        }
+        if (bestHints == Integer.MAX_VALUE) {
+            throw new TimeoutException("No puzzle was generated before the deadline");
+        }
+        bestPuzzle.markClues();
+        bestPuzzle.copyTo(puzzle);
+        bestSolution.copyTo(solution);
+        difficulty = grader.grade(puzzle);
+        finishMeasuring();
+        return new Puzzle(bestPuzzle, bestSolution, difficulty);
+    }
+
+    // Method to get the number of search nodes visited by the solver engines
+    public long getNodeCount() {
+        long nodes = fillSolver.getNodeCount();
+        if (uniquenessSolver != fillSolver) {
+            nodes += uniquenessSolver.getNodeCount();
+        }
+        return nodes;
+    }
+
+    // Method to get the fewest hints a unique puzzle of this size is known to need
+    private int minHints() {
+        switch (subgridSize) {
+            case 2:
+                return MIN_HINTS_4X4;
+            case 3:
+                return MIN_HINTS_9X9;
+            case 4:
+                return MIN_HINTS_16X16;
+            default:
+                return 1; // Not known for 25x25; digPuzzle still gives up after MAX_DIG_GRIDS grids
+        }
+    }
+
+    // Method to check that a unique puzzle with the given number of hints can exist
+    private void checkHints(int hints) {
+        int minHints = minHints();
+        if (hints < minHints || hints > gridSize * gridSize) {
+            throw new IllegalArgumentException("Hints must be between " + minHints + " and " + gridSize * gridSize + ": " + hints);
+        }
+    }
+
+    // Method to get the number of search nodes of the solver engines that ended in a dead end
+    public long getBacktrackCount() {
+        long backtracks = fillSolver.getBacktrackCount();
+        if (uniquenessSolver != fillSolver) {
+            backtracks += uniquenessSolver.getBacktrackCount();
+        }
+        return backtracks;
+    }
+
+    // Method to get the grade of the last generated puzzle
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    // Method to get the number of rows, columns and digits of the generated puzzles
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    // Method to choose how generatePuzzle removes numbers from the solution grid
+    public void setGenerationMode(GenerationMode generationMode) {
+        this.generationMode = generationMode;
+    }
+
+    // Method to set the source of randomness, e.g. a seeded SplittableRandom for repeatable runs
+    public void setRandom(RandomGenerator random) {
+        this.random = random;
+    }
+
+    // Method to get a copy of the solution of the last generated puzzle
+    public int[][] getSolution() {
+        return solution.toArray();
+    }
+
+    // Method to fill an empty grid using a backtracking algorithm; package-private for the benchmarks.
+    // The solver always branches the same way, so solving an empty grid would only ever give relabellings
+    // of one grid. The subgrids on the diagonal share no row or column, so they are filled with independent
+    // random permutations first and the solver completes the rest.
+    void fillGrid(Board grid) {
+        grid.clear();
+        int[] nums = new int[gridSize];
+        for (int i = 0; i < gridSize; i++) {
+            nums[i] = i + 1; // Initialize the nums array with the values 1 to gridSize
+        }
+        long begin = measuring ? System.nanoTime() : 0;
+        do {
+            for (int box = 0; box < subgridSize; box++) {
+                shuffleArray(nums, random);
+                for (int i = 0; i < gridSize; i++) {
+                    grid.set(box * subgridSize + i / subgridSize, box * subgridSize + i % subgridSize, nums[i]);
+                }
+            }
+            shuffleArray(nums, random); // Shuffle the numbers to ensure randomness
+        } while (!solveSudoku(grid, nums)); // Only 4x4 diagonals can be impossible to complete, then draw again
+        if (measuring) {
+            fillNanos += System.nanoTime() - begin;
+        }
+    }
+
+    // Method to shuffle an array
+    private void shuffleArray(int[] array, RandomGenerator random) {
+        for (int i = array.length - 1; i > 0; i--) {
+            int index = random.nextInt(i + 1); // Generate a random index
+            int temp = array[index]; // Swap the elements
+            array[index] = array[i];
+            array[i] = temp;
+        }
+    }
+
+    // Method to solve the Sudoku puzzle with the solver engine, trying the numbers in the given order
+    private boolean solveSudoku(Board grid, int[] nums) {
+        return fillSolver.solve(grid, nums);
+    }
+
+    // Method to remove numbers from the puzzle to create the game
+    private void removeNumbers(int hints) {
+        int totalCellsToRemove = gridSize * gridSize - hints; // Calculate the number of cells to remove
+        while (totalCellsToRemove > 0) {
+            int row = random.nextInt(gridSize); // Generate a random row index
+            int col = random.nextInt(gridSize); // Generate a random column index
+            if (puzzle.get(row, col) != 0) {
+                puzzle.set(row, col, 0); // Remove the number
+                totalCellsToRemove--;
+            }
+        }
+    }
+
+    // Method to ensure the puzzle has a unique solution; package-private for the benchmarks
+    boolean hasUniqueSolution(Board grid) {
+        if (!measuring) {
+            return uniquenessSolver.countSolutions(grid, 2) == 1; // Stop counting as soon as a second solution is found
+        }
+        long begin = System.nanoTime();
+        boolean unique = uniquenessSolver.countSolutions(grid, 2) == 1;
+        verifyNanos += System.nanoTime() - begin;
+        checks++;
+        return unique;
+    }
+}
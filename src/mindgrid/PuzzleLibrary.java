@@ -0,0 +1,171 @@
+package mindgrid;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+// Read-only view of a packed puzzle library file. The file is memory-mapped, so reading
+// puzzle N of a section is a constant-time read of one fixed-size record.
+//
+// File layout (big-endian):
+//   header   magic "MGPL", version (short), section count (short)
+//   index    one entry per section: difficulty (byte), hints (byte), reserved (short),
+//            puzzle count (int), offset of the first record (long)
+//   records  RECORD_SIZE bytes per puzzle: the solution at 4 bits per cell (even cells in
+//            the high nibble) followed by the clue mask at 1 bit per cell (lowest bit first)
+public class PuzzleLibrary {
+    static final int MAGIC = 0x4D47504C; // "MGPL"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int INDEX_ENTRY_SIZE = 16;
+    static final int UNGRADED = 0; // Difficulty of puzzles that were not graded, other values are Difficulty codes
+    private static final int GRID_SIZE = 9;
+    private static final int CELL_COUNT = GRID_SIZE * GRID_SIZE;
+    private static final int SOLUTION_BYTES = (CELL_COUNT + 1) / 2;
+    private static final int MASK_BYTES = (CELL_COUNT + 7) / 8;
+    static final int RECORD_SIZE = SOLUTION_BYTES + MASK_BYTES;
+
+    private final int[] difficulties; // Difficulty of each section
+    private final int[] hints; // Number of hints of each section
+    private final int[] counts; // Number of puzzles in each section
+    private final MappedByteBuffer[] sections; // Records of each section
+
+    // Constructor used by open
+    private PuzzleLibrary(int[] difficulties, int[] hints, int[] counts, MappedByteBuffer[] sections) {
+        this.difficulties = difficulties;
+        this.hints = hints;
+        this.counts = counts;
+        this.sections = sections;
+    }
+
+    // Method to open and map a library file
+    public static PuzzleLibrary open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header, 0);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not a puzzle library: " + file);
+            }
+            if (header.getShort(4) != VERSION) {
+                throw new IOException("Unsupported puzzle library version " + header.getShort(4) + ": " + file);
+            }
+            int sectionCount = header.getShort(6) & 0xFFFF;
+            ByteBuffer index = ByteBuffer.allocate(sectionCount * INDEX_ENTRY_SIZE);
+            readFully(channel, index, HEADER_SIZE);
+
+            int[] difficulties = new int[sectionCount];
+            int[] hints = new int[sectionCount];
+            int[] counts = new int[sectionCount];
+            MappedByteBuffer[] sections = new MappedByteBuffer[sectionCount];
+            for (int i = 0; i < sectionCount; i++) {
+                int entry = i * INDEX_ENTRY_SIZE;
+                difficulties[i] = index.get(entry) & 0xFF;
+                hints[i] = index.get(entry + 1) & 0xFF;
+                counts[i] = index.getInt(entry + 4);
+                long offset = index.getLong(entry + 8);
+                long length = (long) counts[i] * RECORD_SIZE;
+                if (offset + length > channel.size()) {
+                    throw new IOException("Truncated puzzle library: " + file);
+                }
+                sections[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, length); // Stays valid after the channel closes
+            }
+            return new PuzzleLibrary(difficulties, hints, counts, sections);
+        }
+    }
+
+    // Method to get the number of puzzles with the given difficulty and number of hints
+    public int getCount(int difficulty, int hintCount) {
+        int section = findSection(difficulty, hintCount);
+        return section < 0 ? 0 : counts[section];
+    }
+
+    // Method to get the number of puzzles with the given number of hints, of any difficulty
+    public long getCount(int hintCount) {
+        long total = 0;
+        for (int i = 0; i < hints.length; i++) {
+            if (hints[i] == hintCount) {
+                total += counts[i];
+            }
+        }
+        return total;
+    }
+
+    // Method to read puzzle number index of the given difficulty and number of hints
+    public Puzzle getPuzzle(int difficulty, int hintCount, int index) {
+        int section = findSection(difficulty, hintCount);
+        if (section < 0 || index < 0 || index >= counts[section]) {
+            throw new IndexOutOfBoundsException("No puzzle " + index + " with difficulty " + difficulty + " and " + hintCount + " hints");
+        }
+        return readRecord(sections[section], index * RECORD_SIZE, difficulty);
+    }
+
+    // Method to pick a random puzzle with the given number of hints, or null if there is none
+    public Puzzle randomPuzzle(int hintCount, Random random) {
+        long total = getCount(hintCount);
+        if (total == 0) {
+            return null;
+        }
+        long pick = (long) (random.nextDouble() * total);
+        for (int i = 0; i < hints.length; i++) {
+            if (hints[i] == hintCount) {
+                if (pick < counts[i]) {
+                    return readRecord(sections[i], (int) pick * RECORD_SIZE, difficulties[i]);
+                }
+                pick -= counts[i];
+            }
+        }
+        return null;
+    }
+
+    // Method to find the section with the given difficulty and number of hints, or -1
+    private int findSection(int difficulty, int hintCount) {
+        for (int i = 0; i < hints.length; i++) {
+            if (difficulties[i] == difficulty && hints[i] == hintCount) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Method to decode the record at the given position of a section with the given difficulty
+    private static Puzzle readRecord(ByteBuffer section, int position, int difficulty) {
+        Board grid = new Board(3);
+        Board solution = new Board(3);
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            int packed = section.get(position + cell / 2);
+            int value = (cell % 2 == 0 ? packed >> 4 : packed) & 0x0F;
+            boolean clue = (section.get(position + SOLUTION_BYTES + cell / 8) & (1 << (cell % 8))) != 0;
+            solution.set(cell, value);
+            grid.set(cell, clue ? value : 0);
+        }
+        grid.markClues();
+        return new Puzzle(grid, solution, Difficulty.fromCode(difficulty));
+    }
+
+    // Method to encode a puzzle and its solution into a record
+    static void packRecord(Board puzzle, Board solution, byte[] record) {
+        Arrays.fill(record, (byte) 0);
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            int value = solution.get(cell);
+            record[cell / 2] |= (byte) (cell % 2 == 0 ? value << 4 : value);
+            if (puzzle.get(cell) != 0) {
+                record[SOLUTION_BYTES + cell / 8] |= (byte) (1 << (cell % 8));
+            }
+        }
+    }
+
+    // Method to read from the channel until the buffer is full
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of puzzle library");
+            }
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package mindgrid;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Writer for packed puzzle library files; see PuzzleLibrary for the layout. Records are
+// streamed to one temporary file per section and the sections are copied behind the
+// header when the writer is closed, so memory use does not grow with the library.
+public class PuzzleLibraryWriter implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_SECTION_COUNT = Integer.MAX_VALUE / PuzzleLibrary.RECORD_SIZE; // Sections are mapped as one buffer
+    private static final int GRID_SIZE = 9;
+
+    private final Path output; // Library file to write
+    private final Map<Integer, Section> sections = new TreeMap<>(); // Sections ordered by difficulty and hints
+    private final byte[] record = new byte[PuzzleLibrary.RECORD_SIZE]; // Reused record buffer
+    private boolean closed; // Set once the library was written or abandoned
+
+    // Class to hold the temporary file of one section
+    private static class Section {
+        final int difficulty;
+        final int hints;
+        final Path file;
+        final FileChannel channel;
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        int count;
+
+        Section(int difficulty, int hints, Path file) throws IOException {
+            this.difficulty = difficulty;
+            this.hints = hints;
+            this.file = file;
+            this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+    }
+
+    // Constructor to start a new library file
+    public PuzzleLibraryWriter(Path output) {
+        this.output = output;
+    }
+
+    // Entry point that packs text files written by the batch generator into a library. Lines
+    // without a grade are graded while packing. Lines with fewer than 17 clues cannot hold a proper
+    // puzzle and are skipped, which also keeps garbage lines away from the canonical form. With
+    // --dedupe, puzzles that are the same up to symmetry as one packed before are skipped.
+    public static void main(String[] args) {
+        boolean dedupe = args.length > 0 && args[0].equals("--dedupe");
+        int first = dedupe ? 1 : 0; // Index of the output argument
+        if (args.length < first + 2) {
+            System.err.println("Usage: pack [--dedupe] OUTPUT INPUT...");
+            System.exit(2);
+        }
+        DifficultyGrader grader = new DifficultyGrader();
+        CanonicalForm canonicalForm = new CanonicalForm();
+        FingerprintIndex packed = dedupe ? new FingerprintIndex() : null; // Canonical fingerprints of the packed puzzles
+        long duplicates = 0;
+        long sparse = 0; // Lines skipped for having too few clues
+        try (PuzzleLibraryWriter writer = new PuzzleLibraryWriter(Paths.get(args[first]))) {
+            try {
+                for (int i = first + 1; i < args.length; i++) {
+                    try (BufferedReader reader = Files.newBufferedReader(Paths.get(args[i]))) {
+                        String line;
+                        while ((line = reader.readLine()) != null) {
+                            if (!line.isEmpty()) {
+                                int[][] puzzle = parseGrid(line, 0);
+                                if (countClues(puzzle) < PuzzleGenerator.MIN_HINTS_9X9) {
+                                    sparse++;
+                                    continue;
+                                }
+                                if (packed != null) {
+                                    canonicalForm.canonicalize(puzzle);
+                                    if (!packed.add(canonicalForm.getFingerprintHigh(), canonicalForm.getFingerprintLow())) {
+                                        duplicates++;
+                                        continue;
+                                    }
+                                }
+                                int gradeStart = 2 * GRID_SIZE * GRID_SIZE + 2;
+                                Difficulty difficulty = line.length() > gradeStart
+                                        ? Difficulty.parse(line.substring(gradeStart).trim())
+                                        : grader.grade(puzzle);
+                                writer.add(difficulty.getCode(), puzzle, parseGrid(line, GRID_SIZE * GRID_SIZE + 1));
+                            }
+                        }
+                    }
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                writer.abort(); // Leave OUTPUT as it was rather than replace it with part of the input
+                throw e;
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+        if (sparse > 0) {
+            System.out.println("Skipped " + sparse + " lines with fewer than " + PuzzleGenerator.MIN_HINTS_9X9 + " clues");
+        }
+        if (packed != null) {
+            System.out.println("Skipped " + duplicates + " duplicate puzzles");
+        }
+    }
+
+    // Method to count the filled cells of a grid
+    private static int countClues(int[][] grid) {
+        int clues = 0;
+        for (int[] row : grid) {
+            for (int value : row) {
+                if (value != 0) {
+                    clues++;
+                }
+            }
+        }
+        return clues;
+    }
+
+    // Method to add a puzzle and its solution to the section of its difficulty and number of hints
+    public void add(int difficulty, int[][] puzzle, int[][] solution) throws IOException {
+        PuzzleLibrary.packRecord(Board.of(puzzle), Board.of(solution), record);
+        addRecord(difficulty, countClues(puzzle), record);
+    }
+
+    // Method to add an already packed record, taken from the start of the array
+    public void addRecord(int difficulty, int hints, byte[] packedRecord) throws IOException {
+        int key = difficulty << 8 | hints;
+        Section section = sections.get(key);
+        if (section == null) {
+            Path file = Files.createTempFile(output.toAbsolutePath().getParent(), "section", ".tmp");
+            section = new Section(difficulty, hints, file);
+            sections.put(key, section);
+        }
+        if (section.count == MAX_SECTION_COUNT) {
+            throw new IOException("Too many puzzles with difficulty " + difficulty + " and " + hints + " hints");
+        }
+        if (section.buffer.remaining() < PuzzleLibrary.RECORD_SIZE) {
+            drain(section.channel, section.buffer);
+        }
+        section.buffer.put(packedRecord, 0, PuzzleLibrary.RECORD_SIZE); // Anything after the record is ignored
+        section.count++;
+    }
+
+    // Method to abandon the library: the section files are deleted and the output file is left as it was
+    public void abort() throws IOException {
+        if (!closed) {
+            closed = true;
+            deleteSections();
+        }
+    }
+
+    // Method to write the header and index and copy every section behind them, then move the
+    // finished file over the output. If anything fails the output file is left as it was.
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        Path temp;
+        try {
+            temp = Files.createTempFile(output.toAbsolutePath().getParent(), "library", ".tmp");
+        } catch (IOException e) {
+            deleteSections();
+            throw e;
+        }
+        boolean moved = false;
+        try {
+            writeLibrary(temp);
+            Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            moved = true;
+        } finally {
+            if (!moved) {
+                Files.deleteIfExists(temp); // Do not leave a half-written library behind
+            }
+        }
+    }
+
+    // Method to write the header, the index and every section to the given file, deleting the section files
+    private void writeLibrary(Path temp) throws IOException {
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(PuzzleLibrary.HEADER_SIZE + sections.size() * PuzzleLibrary.INDEX_ENTRY_SIZE);
+            header.putInt(PuzzleLibrary.MAGIC);
+            header.putShort(PuzzleLibrary.VERSION);
+            header.putShort((short) sections.size());
+            long offset = header.capacity();
+            for (Section section : sections.values()) {
+                header.put((byte) section.difficulty);
+                header.put((byte) section.hints);
+                header.putShort((short) 0);
+                header.putInt(section.count);
+                header.putLong(offset);
+                offset += (long) section.count * PuzzleLibrary.RECORD_SIZE;
+            }
+            header.flip();
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            for (Section section : sections.values()) {
+                drain(section.channel, section.buffer);
+                long position = 0;
+                long size = section.channel.size();
+                while (position < size) {
+                    position += section.channel.transferTo(position, size - position, out); // Copy without going through the heap
+                }
+            }
+            out.force(true);
+        } finally {
+            deleteSections();
+        }
+    }
+
+    // Method to close and delete the temporary file of every section
+    private void deleteSections() throws IOException {
+        for (Section section : sections.values()) {
+            section.channel.close();
+            Files.deleteIfExists(section.file);
+        }
+    }
+
+    // Method to write everything in the buffer to the channel
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Method to parse 81 cells of a text line starting at the given position ('.' or '0' for empty cells)
+    static int[][] parseGrid(CharSequence line, int start) {
+        if (line.length() < start + GRID_SIZE * GRID_SIZE) {
+            throw new IllegalArgumentException("Line too short: " + line);
+        }
+        int[][] grid = new int[GRID_SIZE][GRID_SIZE];
+        for (int cell = 0; cell < GRID_SIZE * GRID_SIZE; cell++) {
+            char c = line.charAt(start + cell);
+            grid[cell / GRID_SIZE][cell % GRID_SIZE] = c >= '1' && c <= '9' ? c - '0' : 0;
+        }
+        return grid;
+    }
+}
@@ -0,0 +1,405 @@
+package mindgrid;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.*;
+import java.nio.file.Path;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.awt.event.WindowListener;
+
+public class PuzzlePanel {
+    private final int gridSize; // Number of rows, columns and digits
+    private JFrame puzzleFrame; // Frame for displaying the puzzle
+    private SudokuGrid grid; // Component that paints the board and takes the player's input
+    private int[][] solution; // Array to store the solution
+    private int[][] puzzle; // Array to store the puzzle
+    private BoardModel model; // Values, digit counts and correct cells, updated on every edit
+    private HintEngine hintEngine; // Finds the next hint for the model
+    private JLabel hintLabel; // Label for displaying the last hint
+    private MoveHistory history = new MoveHistory(); // Moves that can be undone and redone
+    private JButton undoButton; // Takes back the last move
+    private JButton redoButton; // Makes the last undone move again
+    private Path autosaveFile; // Snapshot file of the autosave, or null before it is created
+    private GameJournal journal; // Records every move in the autosave, or null if autosaving failed
+    private JLabel timerLabel; // Label for displaying the timer
+    private boolean clockRunning; // Whether the clock counts, only while the window is active
+    private boolean colorCodingEnabled = true; // Flag to enable or disable color coding
+    private boolean puzzleSolved = false; // Whether every cell holds the solution or the solution was revealed
+    private boolean solutionRevealed; // Set by Reveal Solution, after which the game stays over
+    private boolean congratulated; // Whether the congratulations were shown for this game
+    private int secondsElapsed = 0; // Variable to track elapsed time
+    private Color backgroundColor; // Background color of the panel
+
+    // Constructor to initialize the puzzle panel with the given puzzle, solution, and background color
+    public PuzzlePanel(int[][] puzzle, int[][] solution, Color backgroundColor) {
+        this.puzzle = puzzle;
+        this.solution = solution;
+        this.backgroundColor = backgroundColor;
+        gridSize = puzzle.length;
+        model = new BoardModel(puzzle, solution);
+        hintEngine = new HintEngine(model);
+    }
+
+    // Method to reopen an autosaved game in a new window, replaying the moves made since its last snapshot
+    public static void resume(Path autosaveFile) throws IOException {
+        MoveHistory history = new MoveHistory();
+        SavedGame game = GameJournal.replay(autosaveFile, history);
+        PuzzlePanel panel = new PuzzlePanel(game.getPuzzle(), game.getSolution(), game.getBackgroundColor());
+        panel.autosaveFile = autosaveFile; // Keep the same autosave instead of starting a new one
+        panel.showPuzzle();
+        panel.applySavedGame(game); // Compacts the replayed journal into a new snapshot
+        panel.history = history; // The replayed moves can be undone
+        panel.updateUndoButtons();
+    }
+
+    // Method to get the snapshot file of this game's autosave, or null if there is none
+    public Path getAutosaveFile() {
+        return autosaveFile;
+    }
+
+    // Method to show the puzzle in a new window
+    public void showPuzzle() {
+        puzzleFrame = new JFrame("MindGrid PUZZLE");
+        puzzleFrame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE); // Closing ends the session
+        int frameSize = Math.max(600, gridSize * 36);
+        puzzleFrame.setSize(frameSize, frameSize); // Set the size of the frame, larger for big grids
+        puzzleFrame.setLayout(new BorderLayout()); // Set the layout of the frame
+
+        grid = new SudokuGrid(model); // One component paints every cell
+        grid.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5)); // Set the border of the grid
+        grid.setBackground(backgroundColor); // Set the background color around the board
+        grid.setEditListener(this::cellEdited); // Record and check every edit
+        grid.setHintListener(this::showHint); // The H key asks for a hint
+        grid.setUndoListener(this::undo); // Ctrl+Z
+        grid.setRedoListener(this::redo); // Ctrl+Y
+
+        // Create buttons for hints, revealing the solution, toggling colors, saving and loading the puzzle
+        JButton hintButton = new JButton("Next Hint");
+        hintButton.addActionListener(e -> showHint());
+
+        undoButton = new JButton("Undo");
+        undoButton.addActionListener(e -> undo());
+
+        redoButton = new JButton("Redo");
+        redoButton.addActionListener(e -> redo());
+
+        JButton revealButton = new JButton("Reveal Solution");
+        revealButton.addActionListener(e -> revealSolution());
+
+        JButton toggleColorButton = new JButton("Toggle Colors");
+        toggleColorButton.addActionListener(e -> toggleColors());
+
+        JButton saveButton = new JButton("Save Puzzle");
+        saveButton.addActionListener(e -> savePuzzle());
+
+        JButton loadButton = new JButton("Load Puzzle");
+        loadButton.addActionListener(e -> loadPuzzle());
+
+        for (JButton button : new JButton[]{hintButton, undoButton, redoButton, revealButton, toggleColorButton, saveButton, loadButton}) {
+            button.setFocusable(false); // Keep the keyboard focus on the grid
+        }
+
+        timerLabel = new JLabel("Time: 0"); // Initialize the timer label
+        hintLabel = new JLabel(" "); // Keeps its height while no hint is shown
+
+        // Create a bottom panel for the hint, the timer and the buttons
+        JPanel bottomPanel = new JPanel(new BorderLayout());
+        JPanel hintPanel = new JPanel(new BorderLayout());
+        hintPanel.add(hintLabel, BorderLayout.CENTER);
+        JPanel historyPanel = new JPanel();
+        historyPanel.add(undoButton);
+        historyPanel.add(redoButton);
+        hintPanel.add(historyPanel, BorderLayout.EAST); // Undo and redo next to the hint
+        bottomPanel.add(hintPanel, BorderLayout.NORTH); // Add the hint row above the timer and buttons
+        bottomPanel.add(timerLabel, BorderLayout.WEST); // Add the timer label to the left
+        JPanel buttonPanel = new JPanel();
+        buttonPanel.add(hintButton);
+        buttonPanel.add(revealButton);
+        buttonPanel.add(toggleColorButton);
+        buttonPanel.add(saveButton);
+        buttonPanel.add(loadButton);
+        bottomPanel.add(buttonPanel, BorderLayout.EAST); // Add the buttons to the right
+
+        // Add the grid and bottom panel to the frame
+        puzzleFrame.add(grid, BorderLayout.CENTER);
+        puzzleFrame.add(bottomPanel, BorderLayout.SOUTH);
+
+        // Run the clock only while the window is active, and end the session when it closes
+        puzzleFrame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowActivated(WindowEvent e) {
+                clockRunning = true;
+            }
+
+            @Override
+            public void windowDeactivated(WindowEvent e) {
+                clockRunning = false;
+            }
+
+            @Override
+            public void windowIconified(WindowEvent e) {
+                clockRunning = false; // Not every window manager deactivates a minimized window
+            }
+
+            @Override
+            public void windowClosed(WindowEvent e) {
+                closeSession();
+            }
+        });
+
+        initializeTimer(0); // Initialize the timer
+        updateUndoButtons();
+        if (autosaveFile == null) {
+            startAutosave(); // A resumed game starts its autosave once the saved state is applied
+        }
+        SessionRegistry.get().register(this); // The shared clock ticks this session from now on
+        puzzleFrame.setVisible(true); // Make the frame visible
+        grid.requestFocusInWindow(); // Let the player type right away
+    }
+
+    // Method to initialize the timer, starting from the given number of seconds
+    private void initializeTimer(int startSeconds) {
+        secondsElapsed = startSeconds; // Reset the elapsed time
+        timerLabel.setText("Time: " + startSeconds); // Reset the timer label
+    }
+
+    // Method called by the shared clock on the event thread every second
+    void tick() {
+        if (journal != null) {
+            journal.writeLater(); // Moves reach the disk at most a second after they are made
+        }
+        if (clockRunning) {
+            secondsElapsed++; // Increment the elapsed time
+            timerLabel.setText("Time: " + secondsElapsed); // Update the timer label
+        }
+    }
+
+    // Method to end the session and close its window, e.g. when the application exits
+    void close() {
+        if (grid == null) {
+            return; // The window has closed already
+        }
+        closeSession(); // Right away, the window listeners are removed before the window closes
+        puzzleFrame.dispose();
+    }
+
+    // Method to release everything the session holds once its window has closed
+    private void closeSession() {
+        SessionRegistry.get().unregister(this);
+        clockRunning = false;
+        if (journal != null) {
+            try {
+                if (puzzleSolved) {
+                    journal.delete(); // A finished game is not resumed
+                } else {
+                    journal.compact(currentGame()); // Resuming then only reads the snapshot
+                    journal.close();
+                }
+            } catch (IOException e) {
+                e.printStackTrace(); // The journal still holds every synced move
+            }
+            journal = null;
+        }
+        try {
+            GameJournal.pruneAutosaves(SessionRegistry.get().getOpenAutosaves()); // Closed games pile up otherwise
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        for (WindowListener listener : puzzleFrame.getWindowListeners()) {
+            puzzleFrame.removeWindowListener(listener);
+        }
+        grid.setEditListener(null);
+        grid.setHintListener(null);
+        grid.setUndoListener(null);
+        grid.setRedoListener(null);
+        puzzleFrame.getContentPane().removeAll(); // Drop the grid, buttons and their listeners
+        grid = null;
+        model = null;
+        hintEngine = null;
+        history = null;
+        puzzle = null;
+        solution = null;
+    }
+
+    // Method to start a new autosave of the game as it is now, replacing the previous one of this window
+    private void startAutosave() {
+        try {
+            if (journal != null) {
+                journal.close();
+                journal = null;
+            }
+            if (autosaveFile == null) {
+                autosaveFile = GameJournal.newAutosaveFile();
+            }
+            journal = GameJournal.start(autosaveFile, currentGame());
+        } catch (IOException e) {
+            e.printStackTrace(); // Play on without an autosave
+        }
+    }
+
+    // Method to get the current state of the game
+    private SavedGame currentGame() {
+        return new SavedGame(puzzle, solution, model.getEntries(), secondsElapsed, colorCodingEnabled, backgroundColor);
+    }
+
+    // Method called after the player changed a cell
+    private void cellEdited(int row, int col, int oldValue, int newValue) {
+        history.record(row, col, oldValue, newValue);
+        afterMove(row, col, newValue);
+    }
+
+    // Method to take back the last move
+    private void undo() {
+        MoveHistory.Move move = history.undo();
+        if (move != null && grid.setCell(move.getRow(), move.getCol(), move.getOldValue())) {
+            afterMove(move.getRow(), move.getCol(), move.getOldValue());
+        }
+        updateUndoButtons();
+    }
+
+    // Method to make the last undone move again
+    private void redo() {
+        MoveHistory.Move move = history.redo();
+        if (move != null && grid.setCell(move.getRow(), move.getCol(), move.getNewValue())) {
+            afterMove(move.getRow(), move.getCol(), move.getNewValue());
+        }
+        updateUndoButtons();
+    }
+
+    // Method to journal a move and check whether it solved the puzzle
+    private void afterMove(int row, int col, int value) {
+        if (journal != null) {
+            journal.append(row, col, value, secondsElapsed); // A few bytes now, written in the background
+        }
+        updateUndoButtons();
+        checkAndShowSolution();
+    }
+
+    // Method to enable the undo and redo buttons only when there is a move to undo or redo
+    private void updateUndoButtons() {
+        undoButton.setEnabled(history.canUndo());
+        redoButton.setEnabled(history.canRedo());
+    }
+
+    // Method to show the next hint and select its cell
+    private void showHint() {
+        if (puzzleSolved) {
+            hintLabel.setText("The puzzle is solved.");
+            return;
+        }
+        Hint hint = hintEngine.nextHint(); // Cached until the board changes, so repeated requests cost nothing
+        if (hint == null) {
+            hintLabel.setText("No simple step found; try guessing a cell with two candidates.");
+            return;
+        }
+        hintLabel.setText(hint.getDescription());
+        grid.selectCell(hint.getRow(), hint.getCol());
+    }
+
+    // Method to reveal the solution
+    private void revealSolution() {
+        solutionRevealed = true;
+        puzzleSolved = true;
+        for (int i = 0; i < gridSize; i++) {
+            for (int j = 0; j < gridSize; j++) {
+                model.set(i, j, solution[i][j]); // Fill every cell with the solution
+            }
+        }
+        grid.setEditable(false); // The revealed solution is shown in blue and can no longer be changed
+        history.clear();
+        updateUndoButtons();
+        if (!congratulated) {
+            congratulated = true;
+            JOptionPane.showMessageDialog(null, "Congratulations! You solved the puzzle!"); // Show the congratulatory message
+        }
+    }
+
+    // Method to toggle the color coding for user input
+    private void toggleColors() {
+        colorCodingEnabled = !colorCodingEnabled; // Toggle the color coding flag
+        grid.setColorCodingEnabled(colorCodingEnabled);
+    }
+
+    // Method to save the current puzzle state to a file
+    private void savePuzzle() {
+        JFileChooser fileChooser = new JFileChooser(); // Create a file chooser
+        int option = fileChooser.showSaveDialog(null); // Show the save dialog
+        if (option == JFileChooser.APPROVE_OPTION) {
+            File file = fileChooser.getSelectedFile(); // Get the selected file
+            try {
+                currentGame().writeTo(file.toPath()); // Save the user's entries with the puzzle
+                JOptionPane.showMessageDialog(null, "Puzzle saved successfully."); // Show a success message
+            } catch (IOException e) {
+                e.printStackTrace();
+                JOptionPane.showMessageDialog(null, "Failed to save the puzzle."); // Show an error message
+            }
+        }
+    }
+
+    // Method to load a saved puzzle state from a file
+    private void loadPuzzle() {
+        JFileChooser fileChooser = new JFileChooser(); // Create a file chooser
+        int option = fileChooser.showOpenDialog(null); // Show the open dialog
+        if (option == JFileChooser.APPROVE_OPTION) {
+            File file = fileChooser.getSelectedFile(); // Get the selected file
+            SavedGame game;
+            try {
+                game = SavedGame.readFrom(file.toPath()); // Read the saved game, in the current or the old format
+            } catch (IOException e) {
+                e.printStackTrace();
+                JOptionPane.showMessageDialog(null, "Failed to load the puzzle. The file might be invalid."); // Show an error message
+                return;
+            }
+            if (game.getPuzzle().length != gridSize) {
+                // The saved board has a different size, so open it in a new window
+                puzzleFrame.dispose(); // Ends this session
+                PuzzlePanel panel = new PuzzlePanel(game.getPuzzle(), game.getSolution(), game.getBackgroundColor());
+                panel.showPuzzle();
+                panel.applySavedGame(game);
+            } else {
+                applySavedGame(game);
+            }
+            JOptionPane.showMessageDialog(null, "Puzzle loaded successfully."); // Show a success message
+        }
+    }
+
+    // Method to show the state of a saved game of the same size in this panel
+    private void applySavedGame(SavedGame game) {
+        puzzle = game.getPuzzle();
+        solution = game.getSolution();
+        colorCodingEnabled = game.isColorCodingEnabled();
+        backgroundColor = game.getBackgroundColor();
+        grid.setBackground(backgroundColor); // Apply the saved background color
+        model = new BoardModel(puzzle, solution);
+        hintEngine = new HintEngine(model);
+        hintLabel.setText(" ");
+        int[][] entries = game.getEntries();
+        for (int i = 0; i < gridSize; i++) {
+            for (int j = 0; j < gridSize; j++) {
+                model.set(i, j, entries[i][j]); // Original cells ignore the entry
+            }
+        }
+        puzzleSolved = model.isSolved();
+        solutionRevealed = false;
+        congratulated = puzzleSolved; // A saved solved game does not congratulate again
+        grid.setModel(model);
+        grid.setColorCodingEnabled(colorCodingEnabled);
+        grid.setEditable(true);
+        initializeTimer(game.getSecondsElapsed()); // Continue the timer from the saved time
+        history.clear(); // Moves of the previous game do not apply
+        updateUndoButtons();
+        startAutosave(); // The autosave now follows the loaded game
+    }
+
+    // Method to check if the solution is correct and show a congratulatory message if solved
+    private void checkAndShowSolution() {
+        hintLabel.setText(" "); // The last hint may no longer apply
+        puzzleSolved = solutionRevealed || model.isSolved(); // Undoing the last move makes a finished game unsolved again
+        if (!puzzleSolved || congratulated) {
+            return; // Exit if the puzzle is not solved yet or the player was congratulated already
+        }
+        congratulated = true;
+        JOptionPane.showMessageDialog(null, "Congratulations! You solved the puzzle!"); // Show the congratulatory message
+    }
+}
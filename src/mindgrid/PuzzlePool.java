@@ -0,0 +1,268 @@
+package mindgrid;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Service that keeps a bounded queue of ready puzzles for every difficulty level.
+// Worker threads top the queues up in the background, so taking a puzzle is usually
+// a single poll. Only one in every TRANSFORMS_PER_SEED + 1 puzzles is generated and verified;
+// the others are random symmetry transforms of it, which are just as unique and just as hard.
+// On a miss a transform of the latest seed is returned right away, and only if there is no
+// seed yet is the puzzle generated asynchronously instead. Misses for the same hint level share
+// one such generation and each get a transform of its puzzle, so a cold start with many
+// requests still runs at most one fallback generator per level. If generating for a hint level fails,
+// the failure is logged and the workers leave that level alone for RETRY_DELAY.
+public class PuzzlePool {
+    private static final Duration FALLBACK_TIMEOUT = Duration.ofSeconds(3); // Longest wait for a puzzle on a miss
+    private static final int TRANSFORMS_PER_SEED = 15; // Variants made from each generated puzzle
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(30); // Pause for a hint level after a failed generation
+
+    private final Map<Integer, BlockingQueue<Puzzle>> queues; // Ready puzzles by number of hints
+    private final Map<Integer, Puzzle> seeds = new ConcurrentHashMap<>(); // Latest generated puzzle by number of hints
+    private final Map<Integer, CompletableFuture<Puzzle>> pendingSeeds = new ConcurrentHashMap<>(); // Fallback generation running for a hint level
+    private final Map<Integer, Long> retryAt = new ConcurrentHashMap<>(); // Time in millis a failed hint level is tried again
+    private final int workerCount; // Number of background refill threads
+    private final Object refillLock = new Object(); // Workers wait on this while every queue is full
+    private final AtomicLong hits = new AtomicLong(); // Requests served straight from a queue
+    private final AtomicLong misses = new AtomicLong(); // Requests that had to wait for generation
+    private final ExecutorService fallbackExecutor; // Generates puzzles for requests that missed
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    // Constructor to create a pool with one queue of the given capacity for each hint level
+    public PuzzlePool(int[] hintLevels, int capacity, int workerCount) {
+        Map<Integer, BlockingQueue<Puzzle>> map = new LinkedHashMap<>();
+        for (int hints : hintLevels) {
+            if (hints < PuzzleGenerator.MIN_HINTS_9X9 || hints > 81) {
+                throw new IllegalArgumentException("Hint levels must be between " + PuzzleGenerator.MIN_HINTS_9X9 + " and 81: " + hints);
+            }
+            map.put(hints, new ArrayBlockingQueue<>(capacity));
+        }
+        this.queues = Collections.unmodifiableMap(map);
+        this.workerCount = workerCount;
+        this.fallbackExecutor = Executors.newCachedThreadPool(daemonThreads("puzzle-fallback"));
+    }
+
+    // Method to start the background workers that keep the queues full
+    public synchronized void start() {
+        if (running) {
+            return; // Already started
+        }
+        running = true;
+        workers = Executors.newFixedThreadPool(workerCount, daemonThreads("puzzle-pool"));
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::refillLoop);
+        }
+    }
+
+    // Method to stop the background workers
+    public synchronized void shutdown() {
+        running = false;
+        synchronized (refillLock) {
+            refillLock.notifyAll(); // Wake up idle workers so they can exit
+        }
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+        fallbackExecutor.shutdownNow();
+    }
+
+    // Method to take a puzzle with the given number of hints.
+    // The future is already complete on a hit; on a miss it completes on a background thread.
+    public CompletableFuture<Puzzle> takePuzzle(int hints) {
+        BlockingQueue<Puzzle> queue = queues.get(hints);
+        Puzzle puzzle = queue == null ? null : queue.poll();
+        if (puzzle != null) {
+            hits.incrementAndGet();
+            synchronized (refillLock) {
+                refillLock.notifyAll(); // There is room in the queue again
+            }
+            return CompletableFuture.completedFuture(puzzle);
+        }
+        misses.incrementAndGet();
+        Puzzle seed = seeds.get(hints);
+        if (seed != null) {
+            // Transforming takes microseconds, so do it on the calling thread
+            return CompletableFuture.completedFuture(new PuzzleTransformer(ThreadLocalRandom.current()).transform(seed));
+        }
+        return fallbackSeed(hints).thenApply(generated -> new PuzzleTransformer(ThreadLocalRandom.current()).transform(generated));
+    }
+
+    // Method to take count puzzles with the given number of hints in one go, e.g. for a bulk request.
+    // The ready puzzles are drained from the queue in a single pass and the rest are transforms of
+    // the latest seed, so the future is already complete unless there is no seed yet.
+    public CompletableFuture<List<Puzzle>> takePuzzles(int hints, int count) {
+        List<Puzzle> puzzles = new ArrayList<>(count);
+        BlockingQueue<Puzzle> queue = queues.get(hints);
+        if (queue != null && queue.drainTo(puzzles, count) > 0) {
+            hits.addAndGet(puzzles.size());
+            synchronized (refillLock) {
+                refillLock.notifyAll(); // There is room in the queue again
+            }
+        }
+        if (puzzles.size() == count) {
+            return CompletableFuture.completedFuture(puzzles);
+        }
+        misses.addAndGet(count - puzzles.size());
+        Puzzle seed = seeds.get(hints);
+        if (seed == null && !puzzles.isEmpty()) {
+            seed = puzzles.get(0); // Any ready puzzle will do as a seed
+        }
+        if (seed != null) {
+            return CompletableFuture.completedFuture(addTransforms(puzzles, seed, count));
+        }
+        return fallbackSeed(hints).thenApply(puzzle -> addTransforms(puzzles, puzzle, count));
+    }
+
+    // Method to get the number of puzzles waiting for the given number of hints
+    public int getAvailable(int hints) {
+        BlockingQueue<Puzzle> queue = queues.get(hints);
+        return queue == null ? 0 : queue.size();
+    }
+
+    // Getter method for the number of requests served from a queue
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    // Getter method for the number of requests that fell back to generation
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    @Override
+    public String toString() {
+        return "PuzzlePool[hits=" + hits.get() + ", misses=" + misses.get() + "]";
+    }
+
+    // Method run by each worker: generate or transform puzzles for the emptiest queue until shut down
+    private void refillLoop() {
+        PuzzleGenerator generator = new PuzzleGenerator(); // Generators are not thread-safe, so each worker has its own
+        PuzzleTransformer transformer = new PuzzleTransformer(new SplittableRandom());
+        Map<Integer, Integer> variantsLeft = new HashMap<>(); // Transforms this worker still makes of each seed
+        while (running) {
+            int hints = emptiestLevel();
+            if (hints < 0) {
+                synchronized (refillLock) {
+                    try {
+                        while (running && emptiestLevel() < 0) {
+                            refillLock.wait(RETRY_DELAY.toMillis()); // Every queue is full or its level is paused
+                        }
+                    } catch (InterruptedException e) {
+                        return; // Shutting down
+                    }
+                }
+                continue;
+            }
+            Puzzle seed = seeds.get(hints);
+            int left = variantsLeft.getOrDefault(hints, 0);
+            Puzzle puzzle;
+            if (seed == null || left == 0) {
+                try {
+                    puzzle = generate(generator, hints);
+                } catch (RuntimeException e) {
+                    e.printStackTrace(); // Keep the worker; the level is left alone for a while
+                    retryAt.put(hints, System.currentTimeMillis() + RETRY_DELAY.toMillis());
+                    continue;
+                }
+                seeds.put(hints, puzzle);
+                variantsLeft.put(hints, TRANSFORMS_PER_SEED);
+            } else {
+                puzzle = transformer.transform(seed);
+                variantsLeft.put(hints, left - 1);
+            }
+            queues.get(hints).offer(puzzle); // Dropped if another worker filled the queue meanwhile
+        }
+    }
+
+    // Method to get the fallback generation for a hint level, starting one only if none is running.
+    // Callers must not cancel the shared future, so they wait on a transform of it instead.
+    private CompletableFuture<Puzzle> fallbackSeed(int hints) {
+        CompletableFuture<Puzzle> created = new CompletableFuture<>();
+        CompletableFuture<Puzzle> pending = pendingSeeds.putIfAbsent(hints, created);
+        if (pending != null) {
+            return pending; // Another miss is already generating for this level
+        }
+        CompletableFuture<Puzzle> generation;
+        try {
+            // Generate with a deadline, settling for a puzzle with a few more clues rather than keeping the player waiting
+            generation = new PuzzleGenerator().generatePuzzleAsync(hints, Instant.now().plus(FALLBACK_TIMEOUT),
+                    new CancellationToken(), null, fallbackExecutor);
+        } catch (RuntimeException e) {
+            pendingSeeds.remove(hints, created);
+            throw e;
+        }
+        generation.whenComplete((puzzle, error) -> {
+            if (puzzle != null && puzzle.getHints() == hints) {
+                seeds.putIfAbsent(hints, puzzle); // Later misses transform it right away
+            }
+            pendingSeeds.remove(hints, created);
+            if (error != null) {
+                created.completeExceptionally(error);
+            } else {
+                created.complete(puzzle);
+            }
+        });
+        return created;
+    }
+
+    // Method to find the hint level whose queue has the most free space, or -1 if all are full or paused
+    private int emptiestLevel() {
+        int best = -1;
+        int bestFree = 0;
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Integer, BlockingQueue<Puzzle>> entry : queues.entrySet()) {
+            if (retryAt.getOrDefault(entry.getKey(), Long.MIN_VALUE) > now) {
+                continue; // Generation failed recently
+            }
+            int free = entry.getValue().remainingCapacity();
+            if (free > bestFree) {
+                bestFree = free;
+                best = entry.getKey();
+            }
+        }
+        return best;
+    }
+
+    // Method to add transforms of a seed to a list until it holds count puzzles
+    private static List<Puzzle> addTransforms(List<Puzzle> puzzles, Puzzle seed, int count) {
+        PuzzleTransformer transformer = new PuzzleTransformer(ThreadLocalRandom.current());
+        while (puzzles.size() < count) {
+            puzzles.add(transformer.transform(seed));
+        }
+        return puzzles;
+    }
+
+    // Method to generate a single puzzle
+    private static Puzzle generate(PuzzleGenerator generator, int hints) {
+        return generator.generate(hints);
+    }
+
+    // Method to create a factory for low-priority daemon threads with the given name prefix
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true); // Do not keep the application alive
+            thread.setPriority(Thread.MIN_PRIORITY); // Leave the CPU to the event thread
+            return thread;
+        };
+    }
+}
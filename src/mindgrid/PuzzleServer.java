@@ -0,0 +1,341 @@
+package mindgrid;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Local HTTP service that gives other front ends on the same machine puzzles from the same engine,
+// using only the web server built into the JDK. It listens on the loopback interface only.
+//
+//   GET  /puzzle?difficulty=easy|hard[&count=N]  Puzzles from the pool, one line each in the text
+//                                                format of BatchGenerator (puzzle, solution, grade)
+//   POST /solve                                  Body: the 81 cells of a puzzle, '.' or '0' for empty.
+//                                                Answers the 81 cells of a solution.
+//   POST /validate                               Body: the 81 cells of a grid. Answers solved, unique,
+//                                                multiple, unsolvable or conflict.
+//
+// Every request runs on its own virtual thread where the JVM has them (Java 21 and later), so
+// thousands of waiting clients cost little memory; older JVMs fall back to a cached thread pool.
+// Solving is CPU-bound, so requests borrow one of a fixed number of solvers, one per core,
+// instead of all searching at once. A bulk fetch with count takes all its puzzles from the pool
+// in one pass, see PuzzlePool.takePuzzles.
+public class PuzzleServer {
+    private static final int GRID_SIZE = 9;
+    private static final int CELL_COUNT = GRID_SIZE * GRID_SIZE;
+    private static final int[] DIGITS = {1, 2, 3, 4, 5, 6, 7, 8, 9}; // Order the solver tries digits in
+    private static final int MAX_COUNT = 1000; // Most puzzles in one response
+    private static final int MAX_BODY = 1024; // Longest request body accepted
+    private static final int BACKLOG = 4096; // Connections the system may queue before they are accepted
+    private static final String USAGE = "Usage: server [--port N] [--pool-capacity N] [--pool-workers N]";
+
+    static {
+        // The built-in server closes idle keep-alive connections beyond 200 (Java 17), which makes clients that
+        // reuse them fail; keep as many open as the backlog allows unless configured otherwise
+        if (System.getProperty("sun.net.httpserver.maxIdleConnections") == null) {
+            System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(BACKLOG));
+        }
+    }
+
+    private final HttpServer server;
+    private final PuzzlePool pool; // Ready puzzles for every difficulty
+    private final BlockingQueue<BitmaskSolver> solvers; // Solvers that are not in use
+    private final ExecutorService executor; // Runs the requests
+
+    // Interface for the code that answers one kind of request
+    private interface Route {
+        // Method to answer a request, returning the response body; throws IllegalArgumentException for a bad request
+        String answer(HttpExchange exchange) throws IOException, InterruptedException, ExecutionException;
+    }
+
+    // Constructor to set up a server on the given port, 0 for any free port
+    public PuzzleServer(int port, int poolCapacity, int poolWorkers) throws IOException {
+        pool = new PuzzlePool(new int[]{SudokuApp.EASY_HINTS, SudokuApp.HARD_HINTS}, poolCapacity, poolWorkers);
+        int cores = Runtime.getRuntime().availableProcessors();
+        solvers = new ArrayBlockingQueue<>(cores);
+        for (int i = 0; i < cores; i++) {
+            solvers.add(new BitmaskSolver());
+        }
+        executor = requestExecutor();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/puzzle", exchange -> handle(exchange, "GET", this::puzzle));
+        server.createContext("/solve", exchange -> handle(exchange, "POST", this::solve));
+        server.createContext("/validate", exchange -> handle(exchange, "POST", this::validate));
+    }
+
+    // Entry point for the server mode; see USAGE for the arguments
+    public static void main(String[] args) {
+        int port = 8642;
+        int poolCapacity = 1024;
+        int poolWorkers = Runtime.getRuntime().availableProcessors();
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+                int value = Integer.parseInt(args[i + 1]);
+                switch (args[i]) {
+                    case "--port":
+                        port = value;
+                        break;
+                    case "--pool-capacity":
+                        poolCapacity = value;
+                        break;
+                    case "--pool-workers":
+                        poolWorkers = value;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        try {
+            PuzzleServer server = new PuzzleServer(port, poolCapacity, poolWorkers);
+            server.start();
+            System.out.println("Serving puzzles on http://127.0.0.1:" + server.getPort() + "/");
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    // Method to start filling the pool and accepting requests
+    public void start() {
+        pool.start();
+        server.start();
+    }
+
+    // Method to stop accepting requests and shut everything down
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+        pool.shutdown();
+    }
+
+    // Method to get the port the server listens on
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Method to get the pool the puzzles come from
+    public PuzzlePool getPool() {
+        return pool;
+    }
+
+    // Method to answer GET /puzzle
+    private String puzzle(HttpExchange exchange) throws InterruptedException, ExecutionException {
+        String difficulty = "easy";
+        int count = 1;
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                int equals = parameter.indexOf('=');
+                String name = equals < 0 ? parameter : parameter.substring(0, equals);
+                String value = equals < 0 ? "" : URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8);
+                if (name.equals("difficulty")) {
+                    difficulty = value;
+                } else if (name.equals("count")) {
+                    try {
+                        count = Integer.parseInt(value);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid count " + value);
+                    }
+                }
+            }
+        }
+        if (count < 1 || count > MAX_COUNT) {
+            throw new IllegalArgumentException("Count must be between 1 and " + MAX_COUNT);
+        }
+        int hints = BatchGenerator.hintsForDifficulty(difficulty);
+        List<Puzzle> puzzles = count == 1 ? List.of(pool.takePuzzle(hints).get()) : pool.takePuzzles(hints, count).get();
+        StringBuilder body = new StringBuilder(puzzles.size() * (2 * CELL_COUNT + 12));
+        for (Puzzle puzzle : puzzles) {
+            body.append(new String(BatchGenerator.toLine(puzzle.getBoard(), puzzle.getSolutionBoard(), puzzle.getDifficulty()),
+                    StandardCharsets.US_ASCII));
+        }
+        return body.toString();
+    }
+
+    // Method to answer POST /solve
+    private String solve(HttpExchange exchange) throws IOException, InterruptedException {
+        int[][] grid = readGrid(exchange);
+        if (hasConflict(grid)) {
+            return "conflict\n";
+        }
+        BitmaskSolver solver = solvers.take(); // Waits while every core is solving
+        boolean solved;
+        try {
+            solved = solver.solve(grid, DIGITS);
+        } finally {
+            solvers.put(solver);
+        }
+        if (!solved) {
+            return "unsolvable\n";
+        }
+        StringBuilder body = new StringBuilder(CELL_COUNT + 1);
+        for (int[] row : grid) {
+            for (int value : row) {
+                body.append((char) ('0' + value));
+            }
+        }
+        return body.append('\n').toString();
+    }
+
+    // Method to answer POST /validate
+    private String validate(HttpExchange exchange) throws IOException, InterruptedException {
+        int[][] grid = readGrid(exchange);
+        if (hasConflict(grid)) {
+            return "conflict\n";
+        }
+        BitmaskSolver solver = solvers.take(); // Waits while every core is solving
+        int solutions;
+        try {
+            solutions = solver.countSolutions(grid, 2); // Stop counting as soon as a second solution is found
+        } finally {
+            solvers.put(solver);
+        }
+        if (solutions == 0) {
+            return "unsolvable\n";
+        }
+        if (solutions > 1) {
+            return "multiple\n";
+        }
+        for (int[] row : grid) {
+            for (int value : row) {
+                if (value == 0) {
+                    return "unique\n";
+                }
+            }
+        }
+        return "solved\n";
+    }
+
+    // Method to run a route and send its answer, or an error status if the request is bad or the route fails
+    private static void handle(HttpExchange exchange, String method, Route route) throws IOException {
+        int status = 200;
+        String body;
+        try {
+            if (!exchange.getRequestMethod().equals(method)) {
+                status = 405;
+                body = "Use " + method + "\n";
+                exchange.getResponseHeaders().set("Allow", method);
+            } else {
+                body = route.answer(exchange);
+            }
+        } catch (IllegalArgumentException e) {
+            status = 400;
+            body = e.getMessage() + "\n";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = 503; // Shutting down
+            body = "Server is stopping\n";
+        } catch (Exception e) {
+            e.printStackTrace();
+            status = 500;
+            body = "Internal error\n";
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // Method to read a 9x9 grid from the request body. Whitespace is ignored, and anything after a comma is
+    // too, so the lines of /puzzle can be sent back as they are.
+    private static int[][] readGrid(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] buffer = new byte[256];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                body.write(buffer, 0, read);
+                if (body.size() > MAX_BODY) {
+                    throw new IllegalArgumentException("Request body is longer than " + MAX_BODY + " bytes");
+                }
+            }
+        }
+        int[][] grid = new int[GRID_SIZE][GRID_SIZE];
+        int cell = 0;
+        for (byte b : body.toByteArray()) {
+            if (b == ',') {
+                break;
+            }
+            if (Character.isWhitespace(b)) {
+                continue;
+            }
+            if (cell == CELL_COUNT) {
+                throw new IllegalArgumentException("Expected " + CELL_COUNT + " cells");
+            }
+            if (b == '.' || b == '0') {
+                cell++; // Empty cell
+            } else if (b >= '1' && b <= '9') {
+                grid[cell / GRID_SIZE][cell % GRID_SIZE] = b - '0';
+                cell++;
+            } else {
+                throw new IllegalArgumentException("Invalid cell '" + (char) b + "'");
+            }
+        }
+        if (cell != CELL_COUNT) {
+            throw new IllegalArgumentException("Expected " + CELL_COUNT + " cells, got " + cell);
+        }
+        return grid;
+    }
+
+    // Method to check whether a digit appears twice in a row, column or subgrid
+    private static boolean hasConflict(int[][] grid) {
+        int[] rows = new int[GRID_SIZE];
+        int[] cols = new int[GRID_SIZE];
+        int[] boxes = new int[GRID_SIZE];
+        for (int row = 0; row < GRID_SIZE; row++) {
+            for (int col = 0; col < GRID_SIZE; col++) {
+                if (grid[row][col] == 0) {
+                    continue;
+                }
+                int bit = 1 << grid[row][col];
+                int box = (row / 3) * 3 + col / 3;
+                if ((rows[row] & bit) != 0 || (cols[col] & bit) != 0 || (boxes[box] & bit) != 0) {
+                    return true;
+                }
+                rows[row] |= bit;
+                cols[col] |= bit;
+                boxes[box] |= bit;
+            }
+        }
+        return false;
+    }
+
+    // Method to create the executor for the requests: one new virtual thread per request where the JVM
+    // has them, otherwise a cached pool of daemon threads. Looked up by reflection so the build stays on Java 17.
+    private static ExecutorService requestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "puzzle-request");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package mindgrid;
+
+import java.util.random.RandomGenerator;
+
+// Turns one verified puzzle into an equivalent one by a random symmetry of the board:
+// relabelling the digits, swapping rows within a band, swapping bands, swapping columns
+// within a stack, swapping stacks and transposing. Every such transform keeps the puzzle
+// valid, with a unique solution, the same number of hints and the same grade, so no
+// solver is needed. A 9x9 seed has up to 9! * 6^8 * 2 (about 1.2 trillion) variants.
+// A transformer is not thread-safe, so every thread needs its own.
+public class PuzzleTransformer {
+    private final int subgridSize; // Size of the subgrids, 3 for a 9x9 grid
+    private final int gridSize; // Number of rows, columns and digits
+    private final int[] rowOrder; // Source row of each row of the transformed grid
+    private final int[] colOrder; // Source column of each column of the transformed grid
+    private final int[] digits; // New label of each digit, with 0 kept for empty cells
+    private final int[] blockOrder; // Scratch order of the bands or stacks
+    private final int[] lineOrder; // Scratch order of the lines within a band or stack
+    private boolean transpose; // Whether rows and columns are swapped
+    private RandomGenerator random;
+
+    // Constructor for a transformer of 9x9 puzzles
+    public PuzzleTransformer(RandomGenerator random) {
+        this(3, random);
+    }
+
+    // Constructor for a transformer of puzzles made of subgridSize x subgridSize subgrids
+    public PuzzleTransformer(int subgridSize, RandomGenerator random) {
+        if (subgridSize < 2 || subgridSize > 5) {
+            throw new IllegalArgumentException("Subgrid size must be between 2 and 5");
+        }
+        this.subgridSize = subgridSize;
+        this.gridSize = subgridSize * subgridSize;
+        this.rowOrder = new int[gridSize];
+        this.colOrder = new int[gridSize];
+        this.digits = new int[gridSize + 1];
+        this.blockOrder = new int[subgridSize];
+        this.lineOrder = new int[subgridSize];
+        this.random = random;
+    }
+
+    // Method to set the source of randomness, e.g. a seeded SplittableRandom for repeatable batch runs
+    public void setRandom(RandomGenerator random) {
+        this.random = random;
+    }
+
+    // Method to get a random variant of the given puzzle, keeping its grade
+    public Puzzle transform(Puzzle seed) {
+        Board grid = new Board(subgridSize);
+        Board solution = new Board(subgridSize);
+        transform(seed.getBoard(), seed.getSolutionBoard(), grid, solution);
+        return new Puzzle(grid, solution, seed.getDifficulty());
+    }
+
+    // Method to apply one random transform to a puzzle board and its solution, writing the results to the
+    // given boards, whose clues are marked. The output boards must not be the input boards.
+    public void transform(Board puzzle, Board solution, Board puzzleOut, Board solutionOut) {
+        if (puzzle.getGridSize() != gridSize || solution.getGridSize() != gridSize) {
+            throw new IllegalArgumentException("The puzzle is not " + gridSize + "x" + gridSize);
+        }
+        nextTransform();
+        apply(puzzle, puzzleOut);
+        apply(solution, solutionOut);
+        puzzleOut.markClues();
+    }
+
+    // Method to apply one random transform to a puzzle and its solution, writing the results to the
+    // given arrays. The output arrays must not be the input arrays.
+    public void transform(int[][] puzzle, int[][] solution, int[][] puzzleOut, int[][] solutionOut) {
+        if (puzzle.length != gridSize || solution.length != gridSize) {
+            throw new IllegalArgumentException("The puzzle is not " + gridSize + "x" + gridSize);
+        }
+        nextTransform();
+        apply(puzzle, puzzleOut);
+        apply(solution, solutionOut);
+    }
+
+    // Method to pick the next random transform
+    private void nextTransform() {
+        shuffleLines(rowOrder);
+        shuffleLines(colOrder);
+        digits[0] = 0; // Empty cells stay empty
+        for (int i = 1; i <= gridSize; i++) {
+            digits[i] = i;
+        }
+        for (int i = gridSize; i > 1; i--) {
+            int index = 1 + random.nextInt(i); // Shuffle the labels 1 to gridSize
+            int temp = digits[index];
+            digits[index] = digits[i];
+            digits[i] = temp;
+        }
+        transpose = random.nextBoolean();
+    }
+
+    // Method to fill an order of rows or columns that shuffles the bands and the lines within each band
+    private void shuffleLines(int[] order) {
+        shuffleIdentity(blockOrder);
+        for (int block = 0; block < subgridSize; block++) {
+            shuffleIdentity(lineOrder);
+            for (int line = 0; line < subgridSize; line++) {
+                order[block * subgridSize + line] = blockOrder[block] * subgridSize + lineOrder[line];
+            }
+        }
+    }
+
+    // Method to fill an array with a random permutation of 0 to length - 1
+    private void shuffleIdentity(int[] array) {
+        for (int i = 0; i < array.length; i++) {
+            int index = random.nextInt(i + 1); // Inside-out shuffle
+            array[i] = array[index];
+            array[index] = i;
+        }
+    }
+
+    // Method to write the transformed copy of a board
+    private void apply(Board source, Board destination) {
+        for (int row = 0; row < gridSize; row++) {
+            for (int col = 0; col < gridSize; col++) {
+                int value = transpose ? source.get(colOrder[col], rowOrder[row]) : source.get(rowOrder[row], colOrder[col]);
+                destination.set(row, col, digits[value]);
+            }
+        }
+    }
+
+    // Method to write the transformed copy of a grid
+    private void apply(int[][] source, int[][] destination) {
+        for (int row = 0; row < gridSize; row++) {
+            int[] target = destination[row];
+            for (int col = 0; col < gridSize; col++) {
+                int value = transpose ? source[colOrder[col]][rowOrder[row]] : source[rowOrder[row]][colOrder[col]];
+                target[col] = digits[value];
+            }
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package mindgrid;
+
+import java.awt.Color;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+// Class to hold the state of a game in progress and to read and write it as a save file.
+//
+// Save file layout (big-endian, version 2):
+//   magic "MGSV" (int), version (short), grid size (byte), flags (byte, bit 0 = color coding),
+//   background color (int, ARGB), elapsed seconds (int),
+//   solution (4 bits per cell for grids up to 15x15, even cells in the high nibble, else 8 bits per cell),
+//   clue mask (1 bit per cell, lowest bit first), user entries (same width as the solution, 0 = empty),
+//   CRC32 of everything before it (int)
+//
+// Version 1 had the same layout but only allowed 9x9 grids. Files written by older versions
+// with ObjectOutputStream are still read.
+public class SavedGame {
+    private static final int MAGIC = 0x4D475356; // "MGSV"
+    private static final short VERSION = 2;
+    private static final short NINE_BY_NINE_VERSION = 1; // Last version that only stored 9x9 grids
+    private static final int LEGACY_GRID_SIZE = 9; // Size of the grids in serialized saves
+    private static final int MAX_GRID_SIZE = 25;
+    private static final int HEADER_SIZE = 16;
+    private static final int FLAG_COLOR_CODING = 1;
+    private static final int SERIALIZATION_MAGIC = 0xACED; // First bytes of an ObjectOutputStream
+
+    private final int[][] puzzle; // The original puzzle, with 0 for empty cells
+    private final int[][] solution; // The solution of the puzzle
+    private final int[][] entries; // Numbers entered by the player, with 0 for empty cells
+    private final int secondsElapsed; // Time spent on the puzzle
+    private final boolean colorCodingEnabled; // Whether entries are colored by correctness
+    private final Color backgroundColor; // Background color of the puzzle panel
+
+    // Constructor to initialize the saved game
+    public SavedGame(int[][] puzzle, int[][] solution, int[][] entries, int secondsElapsed,
+                     boolean colorCodingEnabled, Color backgroundColor) {
+        this.puzzle = puzzle;
+        this.solution = solution;
+        this.entries = entries;
+        this.secondsElapsed = secondsElapsed;
+        this.colorCodingEnabled = colorCodingEnabled;
+        this.backgroundColor = backgroundColor;
+    }
+
+    // Getter method for the puzzle
+    public int[][] getPuzzle() {
+        return puzzle;
+    }
+
+    // Getter method for the solution
+    public int[][] getSolution() {
+        return solution;
+    }
+
+    // Getter method for the player's entries
+    public int[][] getEntries() {
+        return entries;
+    }
+
+    // Getter method for the elapsed time
+    public int getSecondsElapsed() {
+        return secondsElapsed;
+    }
+
+    // Getter method for the color coding flag
+    public boolean isColorCodingEnabled() {
+        return colorCodingEnabled;
+    }
+
+    // Getter method for the background color
+    public Color getBackgroundColor() {
+        return backgroundColor;
+    }
+
+    // Method to write the game to a file. The data goes to a temporary file first, which then
+    // replaces the target in one atomic rename, so a crash never leaves a half-written save.
+    public void writeTo(Path file) throws IOException {
+        int gridSize = puzzle.length;
+        int cellCount = gridSize * gridSize;
+        ByteBuffer buffer = ByteBuffer.allocate(fileSize(gridSize));
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.put((byte) gridSize);
+        buffer.put((byte) (colorCodingEnabled ? FLAG_COLOR_CODING : 0));
+        buffer.putInt(backgroundColor.getRGB());
+        buffer.putInt(secondsElapsed);
+        putCells(buffer, solution);
+        byte[] mask = new byte[(cellCount + 7) / 8];
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (puzzle[cell / gridSize][cell % gridSize] != 0) {
+                mask[cell / 8] |= (byte) (1 << (cell % 8));
+            }
+        }
+        buffer.put(mask);
+        putCells(buffer, entries);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+
+        Path directory = file.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true); // Make sure the data is on disk before the rename
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Method to read a game from a file in the current or the old serialized format
+    public static SavedGame readFrom(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > 1 << 20) {
+                throw new IOException("Save file too large: " + file);
+            }
+            buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Keep reading until the whole file is in the buffer
+            }
+            buffer.flip();
+        }
+        if (buffer.remaining() >= 2 && (buffer.getShort(0) & 0xFFFF) == SERIALIZATION_MAGIC) {
+            return readLegacy(buffer.array());
+        }
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a MindGrid save file: " + file);
+        }
+        short version = buffer.getShort();
+        if (version != VERSION && version != NINE_BY_NINE_VERSION) {
+            throw new IOException("Unsupported save file version " + version + ": " + file);
+        }
+        int gridSize = buffer.get() & 0xFF;
+        if (!isValidGridSize(gridSize) || (version == NINE_BY_NINE_VERSION && gridSize != LEGACY_GRID_SIZE)
+                || buffer.limit() != fileSize(gridSize)) {
+            throw new IOException("Corrupt save file: " + file);
+        }
+        int fileSize = buffer.limit();
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, fileSize - 4);
+        if ((int) crc.getValue() != buffer.getInt(fileSize - 4)) {
+            throw new IOException("Save file checksum mismatch: " + file);
+        }
+        int cellCount = gridSize * gridSize;
+        int flags = buffer.get();
+        Color backgroundColor = new Color(buffer.getInt(), true);
+        int secondsElapsed = buffer.getInt();
+        int[][] solution = getCells(buffer, gridSize);
+        byte[] mask = new byte[(cellCount + 7) / 8];
+        buffer.get(mask);
+        int[][] puzzle = new int[gridSize][gridSize];
+        for (int cell = 0; cell < cellCount; cell++) {
+            if ((mask[cell / 8] & (1 << (cell % 8))) != 0) {
+                puzzle[cell / gridSize][cell % gridSize] = solution[cell / gridSize][cell % gridSize];
+            }
+        }
+        int[][] entries = getCells(buffer, gridSize);
+        return new SavedGame(puzzle, solution, entries, secondsElapsed, (flags & FLAG_COLOR_CODING) != 0, backgroundColor);
+    }
+
+    // Method to import a save written by older versions with ObjectOutputStream
+    private static SavedGame readLegacy(byte[] data) throws IOException {
+        try (ObjectInputStream in = new LegacyInputStream(data)) {
+            int[][] puzzle = (int[][]) in.readObject(); // Read the puzzle array
+            int[][] solution = (int[][]) in.readObject(); // Read the solution array
+            in.readObject(); // Skip the isOriginal array, the puzzle already tells which cells are original
+            int[][] entries = new int[LEGACY_GRID_SIZE][LEGACY_GRID_SIZE];
+            for (int i = 0; i < LEGACY_GRID_SIZE; i++) {
+                for (int j = 0; j < LEGACY_GRID_SIZE; j++) {
+                    CellState cellState = (CellState) in.readObject();
+                    if (!cellState.isOriginal()) {
+                        entries[i][j] = parseEntry(cellState.getText(), LEGACY_GRID_SIZE);
+                    }
+                }
+            }
+            Color backgroundColor = (Color) in.readObject(); // Read the background color
+            boolean colorCodingEnabled = in.readBoolean(); // Read the color coding flag
+            return new SavedGame(puzzle, solution, entries, 0, colorCodingEnabled, backgroundColor);
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Invalid legacy save file", e);
+        }
+    }
+
+    // Stream for legacy saves, which were written before the classes moved into the mindgrid package
+    private static class LegacyInputStream extends ObjectInputStream {
+        LegacyInputStream(byte[] data) throws IOException {
+            super(new ByteArrayInputStream(data));
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            if (desc.getName().equals("CellState")) {
+                return CellState.class; // Saved under its old name in the default package
+            }
+            return super.resolveClass(desc);
+        }
+    }
+
+    // Method to convert the text of a cell into an entry; anything but a number from 1 to gridSize counts as empty
+    public static int parseEntry(String text, int gridSize) {
+        if (text.isEmpty() || text.length() > 2 || text.charAt(0) == '0') {
+            return 0;
+        }
+        int value = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return 0;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value <= gridSize ? value : 0;
+    }
+
+    // Method to check whether a grid size can be stored in a save file
+    private static boolean isValidGridSize(int gridSize) {
+        int subgridSize = (int) Math.round(Math.sqrt(gridSize));
+        return gridSize <= MAX_GRID_SIZE && subgridSize >= 2 && subgridSize * subgridSize == gridSize;
+    }
+
+    // Method to get the number of bits used for each cell of a grid
+    private static int cellBits(int gridSize) {
+        return gridSize <= 15 ? 4 : 8;
+    }
+
+    // Method to get the number of bytes taken by one grid of cells
+    private static int cellBytes(int gridSize) {
+        return (gridSize * gridSize * cellBits(gridSize) + 7) / 8;
+    }
+
+    // Method to get the size of a save file for the given grid size
+    private static int fileSize(int gridSize) {
+        return HEADER_SIZE + 2 * cellBytes(gridSize) + (gridSize * gridSize + 7) / 8 + 4;
+    }
+
+    // Method to write a grid at 4 or 8 bits per cell, depending on its size
+    private static void putCells(ByteBuffer buffer, int[][] grid) {
+        int gridSize = grid.length;
+        int cellCount = gridSize * gridSize;
+        byte[] packed = new byte[cellBytes(gridSize)];
+        for (int cell = 0; cell < cellCount; cell++) {
+            int value = grid[cell / gridSize][cell % gridSize];
+            if (cellBits(gridSize) == 8) {
+                packed[cell] = (byte) value;
+            } else {
+                packed[cell / 2] |= (byte) (cell % 2 == 0 ? value << 4 : value);
+            }
+        }
+        buffer.put(packed);
+    }
+
+    // Method to read a grid stored at 4 or 8 bits per cell
+    private static int[][] getCells(ByteBuffer buffer, int gridSize) throws IOException {
+        int cellCount = gridSize * gridSize;
+        byte[] packed = new byte[cellBytes(gridSize)];
+        buffer.get(packed);
+        int[][] grid = new int[gridSize][gridSize];
+        for (int cell = 0; cell < cellCount; cell++) {
+            int value;
+            if (cellBits(gridSize) == 8) {
+                value = packed[cell] & 0xFF;
+            } else {
+                value = (cell % 2 == 0 ? packed[cell / 2] >> 4 : packed[cell / 2]) & 0x0F;
+            }
+            if (value > gridSize) {
+                throw new IOException("Invalid cell value " + value + " in save file");
+            }
+            grid[cell / gridSize][cell % gridSize] = value;
+        }
+        return grid;
+    }
+}
@@ -0,0 +1,175 @@
+package mindgrid;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Load test for PuzzleServer. Keeps the given number of requests in flight with the asynchronous
+// HTTP client of the JDK, so thousands of concurrent requests need no client threads, and prints
+// throughput and latency percentiles. The first requests only warm up the server and are not
+// measured. Without --url a server is started in this process on a free port.
+public class ServerLoadTest {
+    private static final String USAGE = "Usage: loadtest [--url URL] [--requests N] [--concurrency N] [--warmup N] "
+            + "[--endpoint puzzle|bulk|solve|validate|mixed]";
+    private static final String[] ENDPOINTS = {"puzzle", "bulk", "solve", "validate"};
+    private static final int BULK_COUNT = 50; // Puzzles in one bulk request
+
+    private final URI base; // Address of the server
+    private final int concurrency; // Requests kept in flight
+    private final String endpoint; // Endpoint to load, or mixed to take turns
+    private final HttpClient client;
+    private final LatencyHistogram latencies = new LatencyHistogram(); // Time from sending to the full response
+    private final AtomicLong errors = new AtomicLong(); // Requests that failed or got a status other than 200
+    private String puzzleLine; // A puzzle from the server, sent back to /solve and /validate
+
+    // Constructor to load the server at the given address
+    public ServerLoadTest(URI base, int concurrency, String endpoint) {
+        this.base = base;
+        this.concurrency = concurrency;
+        this.endpoint = endpoint;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    // Entry point for the load test; see USAGE for the arguments
+    public static void main(String[] args) {
+        String url = null;
+        int requests = 100_000;
+        int concurrency = 2_000;
+        int warmup = 10_000;
+        String endpoint = "mixed";
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--url":
+                        url = value;
+                        break;
+                    case "--requests":
+                        requests = Integer.parseInt(value);
+                        break;
+                    case "--concurrency":
+                        concurrency = Integer.parseInt(value);
+                        break;
+                    case "--warmup":
+                        warmup = Integer.parseInt(value);
+                        break;
+                    case "--endpoint":
+                        if (!value.equals("mixed") && !Arrays.asList(ENDPOINTS).contains(value)) {
+                            throw new IllegalArgumentException("Unknown endpoint " + value);
+                        }
+                        endpoint = value;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            if (requests < 1 || concurrency < 1 || warmup < 0) {
+                throw new IllegalArgumentException("Requests and concurrency must be positive");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        PuzzleServer server = null;
+        try {
+            if (url == null) {
+                server = new PuzzleServer(0, 1024, Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+                server.start();
+                url = "http://127.0.0.1:" + server.getPort();
+            }
+            ServerLoadTest test = new ServerLoadTest(URI.create(url), concurrency, endpoint);
+            test.fetchPuzzle();
+            if (warmup > 0) {
+                test.run(warmup);
+                test.reset();
+            }
+            test.report(test.run(requests), requests);
+        } catch (IOException | InterruptedException e) {
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            if (server != null) {
+                System.out.println(server.getPool());
+                server.stop();
+            }
+        }
+    }
+
+    // Method to get one puzzle from the server for the solve and validate requests
+    public void fetchPuzzle() throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(base.resolve("/puzzle?difficulty=hard")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("GET /puzzle answered " + response.statusCode() + ": " + response.body());
+        }
+        puzzleLine = response.body().trim();
+    }
+
+    // Method to send the given number of requests, keeping the concurrency in flight; returns the elapsed nanoseconds
+    public long run(int requests) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(concurrency);
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            long begin = System.nanoTime();
+            CompletableFuture<HttpResponse<Void>> future = client.sendAsync(request(i), HttpResponse.BodyHandlers.discarding());
+            future.whenComplete((response, error) -> {
+                latencies.recordNanos(System.nanoTime() - begin);
+                if (error != null || response.statusCode() != 200) {
+                    errors.incrementAndGet();
+                }
+                inFlight.release();
+            });
+        }
+        inFlight.acquire(concurrency); // Wait for the last responses
+        return System.nanoTime() - start;
+    }
+
+    // Method to forget the measurements, e.g. after the warm-up
+    public void reset() {
+        latencies.reset();
+        errors.set(0);
+    }
+
+    // Method to print the throughput, the error count and the latency percentiles
+    public void report(long nanos, int requests) {
+        double seconds = nanos / 1e9;
+        System.out.printf("%d requests (%s) with %d in flight: %.0f requests/s, %d errors%n",
+                requests, endpoint, concurrency, requests / seconds, errors.get());
+        System.out.printf("latency p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms%n",
+                latencies.getPercentile(50) / 1000.0, latencies.getPercentile(90) / 1000.0,
+                latencies.getPercentile(99) / 1000.0, latencies.getPercentile(99.9) / 1000.0,
+                latencies.getPercentile(100) / 1000.0);
+    }
+
+    // Method to build the i-th request
+    private HttpRequest request(int i) {
+        String target = endpoint.equals("mixed") ? ENDPOINTS[i % ENDPOINTS.length] : endpoint;
+        switch (target) {
+            case "puzzle":
+                return HttpRequest.newBuilder(base.resolve("/puzzle?difficulty=" + (i % 2 == 0 ? "easy" : "hard"))).build();
+            case "bulk":
+                return HttpRequest.newBuilder(base.resolve("/puzzle?difficulty=easy&count=" + BULK_COUNT)).build();
+            default:
+                return HttpRequest.newBuilder(base.resolve("/" + target))
+                        .POST(HttpRequest.BodyPublishers.ofString(puzzleLine))
+                        .build();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package mindgrid;
+
+import javax.swing.SwingUtilities;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Registry of the open puzzle windows. One shared scheduler thread ticks the clocks of all of
+// them once a second, and it only runs while at least one window is open: the tick is cancelled
+// when the last window closes and the idle thread then ends. Windows register when they are
+// shown and unregister when they close, so nothing keeps a closed game alive.
+//
+// The list of sessions is only touched on the event dispatch thread.
+public class SessionRegistry {
+    private static final SessionRegistry INSTANCE = new SessionRegistry();
+    private static final long TICK_MILLIS = 1000;
+    private static final long IDLE_SECONDS = 10; // The clock thread ends after being idle this long
+
+    private final ScheduledThreadPoolExecutor clock; // Shared scheduler for the clocks of all sessions
+    private final List<PuzzlePanel> sessions = new ArrayList<>(); // Open puzzle windows
+    private final Runnable tickSessions = this::tickSessions; // Created once, posted to the event thread every tick
+    private ScheduledFuture<?> tick; // Scheduled tick while sessions are open, or null
+
+    // Constructor used for the single instance
+    private SessionRegistry() {
+        clock = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "game-clock");
+            thread.setDaemon(true);
+            return thread;
+        });
+        clock.setKeepAliveTime(IDLE_SECONDS, TimeUnit.SECONDS);
+        clock.allowCoreThreadTimeOut(true); // No thread while no game is open
+        clock.setRemoveOnCancelPolicy(true);
+    }
+
+    // Method to get the registry of this process
+    public static SessionRegistry get() {
+        return INSTANCE;
+    }
+
+    // Method to add an open puzzle window and start the clock if it is the first
+    void register(PuzzlePanel session) {
+        sessions.add(session);
+        if (tick == null) {
+            tick = clock.scheduleAtFixedRate(() -> SwingUtilities.invokeLater(tickSessions),
+                    TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Method to remove a closed puzzle window and stop the clock if it was the last
+    void unregister(PuzzlePanel session) {
+        sessions.remove(session);
+        if (sessions.isEmpty() && tick != null) {
+            tick.cancel(false);
+            tick = null;
+        }
+    }
+
+    // Method to close every open puzzle window, so each game is saved before the application exits
+    void closeAll() {
+        for (PuzzlePanel session : new ArrayList<>(sessions)) {
+            session.close(); // Unregisters the session
+        }
+    }
+
+    // Method to run a short task, such as writing a journal batch, on the clock thread
+    void runInBackground(Runnable task) {
+        clock.execute(task);
+    }
+
+    // Method to get the autosave files of the open puzzle windows
+    public List<Path> getOpenAutosaves() {
+        List<Path> files = new ArrayList<>();
+        for (PuzzlePanel session : sessions) {
+            if (session.getAutosaveFile() != null) {
+                files.add(session.getAutosaveFile());
+            }
+        }
+        return files;
+    }
+
+    // Method to get the number of open puzzle windows
+    public int getOpenSessionCount() {
+        return sessions.size();
+    }
+
+    // Method run on the event thread every tick to advance the clock of every session
+    private void tickSessions() {
+        for (int i = 0; i < sessions.size(); i++) {
+            sessions.get(i).tick(); // Sessions with a paused clock ignore the tick
+        }
+    }
+}
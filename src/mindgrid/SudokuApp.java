@@ -0,0 +1,239 @@
+package mindgrid;
+
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+public class SudokuApp extends JFrame {
+
+    // Constants for the number of hints based on difficulty level
+    static final int EASY_HINTS = 40;
+    static final int HARD_HINTS = 30;
+
+    // Board sizes that can be played, by subgrid size, and the number of hints for each of them
+    private static final int[] SUBGRID_SIZES = {2, 3, 4, 5};
+    private static final int[] EASY_HINTS_BY_SIZE = {8, EASY_HINTS, 140, 375};
+    private static final int[] HARD_HINTS_BY_SIZE = {6, HARD_HINTS, 115, 320}; // 25x25 stays above half the cells to keep generation fast
+    private static final long GENERATION_SECONDS = 5; // Time limit for generating a board other than 9x9
+
+    // Settings for the pool of pre-generated puzzles
+    private static final int POOL_CAPACITY = 8;
+    private static final int POOL_WORKERS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    // Puzzle library used instead of live generation when present; override with -Dmindgrid.library=FILE
+    private static final String LIBRARY_FILE = System.getProperty("mindgrid.library", "puzzles.mgl");
+
+    // GUI components
+    private JPanel mainPanel;
+    private JButton startButton, resumeButton, boardSizeButton, customizationButton, exitButton;
+    private ImageIcon logoIcon;
+    private Color backgroundColor = Color.WHITE;
+    private int subgridSize = 3; // Size of the subgrids of new puzzles, 3 for a 9x9 board
+    private final PuzzlePool puzzlePool; // Pool of ready puzzles for each difficulty
+    private final PuzzleLibrary puzzleLibrary; // Pre-generated puzzles, or null if there is no library file
+    private final Random random = new Random(); // Used to pick puzzles from the library
+
+    // Constructor to set up the main window and components
+    public SudokuApp() {
+        // Use the puzzle library when there is one, and only generate the difficulties it lacks
+        puzzleLibrary = openLibrary();
+        puzzlePool = new PuzzlePool(new int[]{EASY_HINTS, HARD_HINTS}, POOL_CAPACITY, POOL_WORKERS);
+        if (puzzleLibrary == null || puzzleLibrary.getCount(EASY_HINTS) == 0 || puzzleLibrary.getCount(HARD_HINTS) == 0) {
+            puzzlePool.start(); // Start filling the puzzle pool in the background right away
+        }
+
+        // Set the title of the window
+        setTitle("MindGrid");
+        // Set the size of the window
+        setSize(600, 400);
+        // Closing the main window exits through exitApp, which saves the open games first
+        setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                exitApp();
+            }
+        });
+        // Use BorderLayout for the main layout
+        setLayout(new BorderLayout());
+
+        // Initialize the main panel with a grid layout
+        mainPanel = new JPanel(new GridBagLayout());
+        mainPanel.setBackground(new Color(173, 216, 230)); // Set background color to light blue
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(10, 10, 10, 10);
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+
+        // Create a title panel and label
+        JPanel titlePanel = new JPanel();
+        titlePanel.setBackground(new Color(173, 216, 230));
+        JLabel titleLabel = new JLabel("MindGrid");
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 36));
+        titleLabel.setHorizontalAlignment(JLabel.CENTER);
+        titlePanel.add(titleLabel);
+
+        // Add the title label to the main panel
+        gbc.gridx = 0;
+        gbc.gridy = 0;
+        gbc.gridwidth = 1;
+        gbc.anchor = GridBagConstraints.CENTER;
+        mainPanel.add(titleLabel, gbc);
+
+        // Add the start button to the main panel
+        gbc.gridwidth = 1;
+        gbc.gridx = 0;
+        gbc.gridy = 1;
+        mainPanel.add(startButton = new JButton("Start"), gbc);
+
+        // Add the resume button to the main panel
+        gbc.gridy = 2;
+        mainPanel.add(resumeButton = new JButton("Resume Game"), gbc);
+
+        // Add the board size button to the main panel
+        gbc.gridy = 3;
+        mainPanel.add(boardSizeButton = new JButton("Board Size: 9x9"), gbc);
+
+        // Add the customization button to the main panel
+        gbc.gridy = 4;
+        mainPanel.add(customizationButton = new JButton("Customization"), gbc);
+
+        // Add the exit button to the main panel
+        gbc.gridy = 5;
+        mainPanel.add(exitButton = new JButton("Exit"), gbc);
+
+        // Add the main panel to the center of the frame
+        add(mainPanel, BorderLayout.CENTER);
+
+        // Add action listeners to the buttons
+        startButton.addActionListener(e -> showDifficultySelection());
+        resumeButton.addActionListener(e -> resumeGame());
+        boardSizeButton.addActionListener(e -> showBoardSizeSelection());
+        customizationButton.addActionListener(e -> showCustomizationOptions());
+        exitButton.addActionListener(e -> exitApp());
+
+
+    }
+
+    // Method to close every open game, compacting its autosave, and then exit
+    private void exitApp() {
+        SessionRegistry.get().closeAll();
+        puzzlePool.shutdown();
+        System.exit(0);
+    }
+
+    // Method to reopen the most recent autosaved game that is not open already
+    private void resumeGame() {
+        try {
+            Path autosave = GameJournal.latestAutosave(SessionRegistry.get().getOpenAutosaves());
+            if (autosave == null) {
+                JOptionPane.showMessageDialog(this, "There is no unfinished game to resume.");
+                return;
+            }
+            PuzzlePanel.resume(autosave);
+        } catch (IOException e) {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(this, "Failed to resume the game. The autosave might be damaged."); // Show an error message
+        }
+    }
+
+    // Method to show the difficulty selection dialog
+    private void showDifficultySelection() {
+        // Options for the difficulty levels
+        String[] options = {"Easy", "Hard"};
+        // Show a dialog to select the difficulty
+        int choice = JOptionPane.showOptionDialog(this, "Select Difficulty", "Difficulty",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.INFORMATION_MESSAGE, logoIcon, options, options[0]);
+        int hints = 0;
+        switch (choice) {
+            case 0:
+                hints = hintsFor(subgridSize, false); // Set hints to the easy level if Easy is selected
+                break;
+            case 1:
+                hints = hintsFor(subgridSize, true); // Set hints to the hard level if Hard is selected
+                break;
+            default:
+                return; // Exit if no selection is made
+        }
+        CompletableFuture<Puzzle> nextPuzzle;
+        if (subgridSize != 3) {
+            // Other board sizes are not pooled, so generate one off the event thread
+            nextPuzzle = new PuzzleGenerator(subgridSize).generatePuzzleAsync(hints,
+                    Instant.now().plusSeconds(GENERATION_SECONDS), new CancellationToken(), null);
+        } else {
+            // Read a puzzle from the library, or take one from the pool; if none is ready it is generated
+            // without blocking the event thread
+            Puzzle libraryPuzzle = puzzleLibrary == null ? null : puzzleLibrary.randomPuzzle(hints, random);
+            nextPuzzle = libraryPuzzle != null
+                    ? CompletableFuture.completedFuture(libraryPuzzle)
+                    : puzzlePool.takePuzzle(hints);
+        }
+        nextPuzzle.whenComplete((puzzle, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                error.printStackTrace();
+                JOptionPane.showMessageDialog(this, "Failed to generate a puzzle."); // Show an error message
+                return;
+            }
+            // Show the puzzle using the PuzzlePanel
+            new PuzzlePanel(puzzle.getGrid(), puzzle.getSolution(), backgroundColor).showPuzzle();
+        }));
+    }
+
+    // Method to show the board size selection dialog
+    private void showBoardSizeSelection() {
+        String[] options = new String[SUBGRID_SIZES.length];
+        for (int i = 0; i < SUBGRID_SIZES.length; i++) {
+            int size = SUBGRID_SIZES[i] * SUBGRID_SIZES[i];
+            options[i] = size + "x" + size;
+        }
+        int choice = JOptionPane.showOptionDialog(this, "Select Board Size", "Board Size",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.INFORMATION_MESSAGE, logoIcon, options, options[1]);
+        if (choice >= 0) {
+            subgridSize = SUBGRID_SIZES[choice];
+            boardSizeButton.setText("Board Size: " + options[choice]);
+        }
+    }
+
+    // Method to get the number of hints for a board size and difficulty
+    static int hintsFor(int subgridSize, boolean hard) {
+        for (int i = 0; i < SUBGRID_SIZES.length; i++) {
+            if (SUBGRID_SIZES[i] == subgridSize) {
+                return hard ? HARD_HINTS_BY_SIZE[i] : EASY_HINTS_BY_SIZE[i];
+            }
+        }
+        throw new IllegalArgumentException("Unsupported subgrid size " + subgridSize);
+    }
+
+    // Method to open the puzzle library file if it exists
+    private static PuzzleLibrary openLibrary() {
+        Path file = Paths.get(LIBRARY_FILE);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            return PuzzleLibrary.open(file);
+        } catch (IOException e) {
+            e.printStackTrace(); // Fall back to generating puzzles
+            return null;
+        }
+    }
+
+    // Method to show customization options
+    private void showCustomizationOptions() {
+        // Show a color chooser dialog to select the background color
+        Color newColor = JColorChooser.showDialog(this, "Choose Background Color", backgroundColor);
+        if (newColor != null) {
+            backgroundColor = newColor; // Set the selected color as the background color
+            getContentPane().setBackground(backgroundColor); // Update the background color of the main frame
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package mindgrid;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+// Component that shows a whole board and takes the player's input. All cells are painted in one
+// pass straight from a BoardModel, keys are handled here instead of by a text field per cell,
+// and after an edit only the cells whose look changed are repainted. Typing, moving and
+// repainting allocate nothing.
+//
+// Digits are typed into the selected cell; on boards larger than 9x9 a second digit typed into
+// the same cell within a second makes a two-digit number. Backspace, Delete, Space or 0 clear
+// the cell and the arrow keys move the selection. H asks for a hint, Ctrl+Z undoes the last
+// move and Ctrl+Y or Ctrl+Shift+Z redoes it.
+public class SudokuGrid extends JComponent {
+    private static final long serialVersionUID = 1L; // Components inherit Serializable; the grid is never serialized
+    private static final Color CONFLICT_COLOR = new Color(255, 200, 200); // Background of cells with duplicate digits
+    private static final Color SELECTED_COLOR = new Color(255, 245, 180); // Background of the selected cell
+    private static final int THIN_LINE = 1; // Width of the lines between cells
+    private static final int THICK_LINE = 3; // Width of the lines between subgrids
+    private static final long TWO_DIGIT_MILLIS = 1000; // Time to type the second digit of a number
+
+    // Looks a cell can have, compared to find the cells that need repainting
+    private static final int LOOK_EMPTY = 0;
+    private static final int LOOK_ORIGINAL = 1;
+    private static final int LOOK_PLAIN = 2;
+    private static final int LOOK_CORRECT = 3;
+    private static final int LOOK_WRONG = 4;
+    private static final int LOOK_CONFLICT = 8; // Added to the look of a cell with a duplicate digit
+    private static final int LOOK_SELECTED = 16; // Added to the look of the selected cell
+
+    private final int gridSize; // Number of rows, columns and digits
+    private final int subgridSize; // Number of rows and columns in a subgrid
+    private final String[] labels; // Text of every digit, created once
+    private final byte[] paintedLooks; // Look of every cell when it was last painted
+    private BoardModel model; // Values shown by the grid
+    private CellEditListener editListener; // Called after the player changed a cell, or null
+    private Runnable hintListener; // Called when the player asks for a hint, or null
+    private Runnable undoListener; // Called when the player asks to undo a move, or null
+    private Runnable redoListener; // Called when the player asks to redo a move, or null
+    private boolean colorCodingEnabled = true; // Whether entries are colored by correctness and conflicts
+    private boolean editable = true; // Whether the player can change cells
+    private int selectedRow; // Row of the selected cell
+    private int selectedCol; // Column of the selected cell
+    private long lastTypedWhen; // Time of the last digit typed, for two-digit numbers
+    private Font cellFont; // Font scaled to the current cell size
+    private int fontCellSize; // Cell size the font was scaled for
+    private Color editableBackground; // Background of cells the player can change
+    private Color originalBackground; // Background of cells given by the puzzle
+
+    // Constructor to show the given model
+    public SudokuGrid(BoardModel model) {
+        this.model = model;
+        gridSize = model.getGridSize();
+        subgridSize = (int) Math.round(Math.sqrt(gridSize));
+        labels = new String[gridSize + 1];
+        for (int num = 1; num <= gridSize; num++) {
+            labels[num] = String.valueOf(num);
+        }
+        paintedLooks = new byte[gridSize * gridSize];
+        setOpaque(true);
+        setFocusable(true);
+        setPreferredSize(new Dimension(gridSize * 48, gridSize * 48));
+        updateColors();
+
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                requestFocusInWindow();
+                int cellSize = cellSize();
+                if (cellSize <= 0) {
+                    return; // The component is too small to show the board
+                }
+                int col = (e.getX() - originX(cellSize)) / cellSize;
+                int row = (e.getY() - originY(cellSize)) / cellSize;
+                if (e.getX() >= originX(cellSize) && e.getY() >= originY(cellSize) && row < gridSize && col < gridSize) {
+                    select(row, col);
+                }
+            }
+        });
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_UP:
+                        select((selectedRow + gridSize - 1) % gridSize, selectedCol);
+                        break;
+                    case KeyEvent.VK_DOWN:
+                        select((selectedRow + 1) % gridSize, selectedCol);
+                        break;
+                    case KeyEvent.VK_LEFT:
+                        select(selectedRow, (selectedCol + gridSize - 1) % gridSize);
+                        break;
+                    case KeyEvent.VK_RIGHT:
+                        select(selectedRow, (selectedCol + 1) % gridSize);
+                        break;
+                    case KeyEvent.VK_BACK_SPACE:
+                    case KeyEvent.VK_DELETE:
+                    case KeyEvent.VK_SPACE:
+                        enter(0);
+                        break;
+                    case KeyEvent.VK_H:
+                        run(hintListener);
+                        break;
+                    case KeyEvent.VK_Z:
+                        if (e.isControlDown()) {
+                            run(e.isShiftDown() ? redoListener : undoListener);
+                        }
+                        break;
+                    case KeyEvent.VK_Y:
+                        if (e.isControlDown()) {
+                            run(redoListener);
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+
+            @Override
+            public void keyTyped(KeyEvent e) {
+                char c = e.getKeyChar();
+                if (c >= '0' && c <= '9') {
+                    typeDigit(c - '0', e.getWhen());
+                }
+            }
+        });
+    }
+
+    // Method to show another model of the same size, e.g. after loading a game
+    public void setModel(BoardModel model) {
+        if (model.getGridSize() != gridSize) {
+            throw new IllegalArgumentException("The model has a different grid size");
+        }
+        this.model = model;
+        repaint();
+    }
+
+    // Method to set the code to run after the player changed a cell
+    public void setEditListener(CellEditListener editListener) {
+        this.editListener = editListener;
+    }
+
+    // Method to set the code to run when the player asks for a hint
+    public void setHintListener(Runnable hintListener) {
+        this.hintListener = hintListener;
+    }
+
+    // Method to set the code to run when the player asks to undo a move
+    public void setUndoListener(Runnable undoListener) {
+        this.undoListener = undoListener;
+    }
+
+    // Method to set the code to run when the player asks to redo a move
+    public void setRedoListener(Runnable redoListener) {
+        this.redoListener = redoListener;
+    }
+
+    // Method to change a cell for the program, e.g. to undo a move, without calling the edit listener;
+    // returns false if nothing changed
+    public boolean setCell(int row, int col, int num) {
+        if (!editable || !model.set(row, col, num)) {
+            return false;
+        }
+        repaintChangedPeers(row, col);
+        return true;
+    }
+
+    // Method to move the selection to a cell, e.g. the cell of a hint
+    public void selectCell(int row, int col) {
+        select(row, col);
+    }
+
+    // Method to switch coloring of entries by correctness and conflicts on or off
+    public void setColorCodingEnabled(boolean colorCodingEnabled) {
+        this.colorCodingEnabled = colorCodingEnabled;
+        repaint();
+    }
+
+    // Method to allow or stop changes by the player
+    public void setEditable(boolean editable) {
+        this.editable = editable;
+        repaint();
+    }
+
+    @Override
+    public void updateUI() {
+        super.updateUI();
+        updateColors(); // Follow the look and feel like the text fields did
+    }
+
+    // Method to read the cell backgrounds from the look and feel
+    private void updateColors() {
+        Color background = UIManager.getColor("TextField.background");
+        Color inactiveBackground = UIManager.getColor("TextField.inactiveBackground");
+        editableBackground = background != null ? background : Color.WHITE;
+        originalBackground = inactiveBackground != null ? inactiveBackground : Color.LIGHT_GRAY;
+    }
+
+    // Method to handle a digit typed into the selected cell
+    private void typeDigit(int digit, long when) {
+        int current = model.get(selectedRow, selectedCol);
+        int combined = current * 10 + digit;
+        if (gridSize > 9 && current > 0 && combined <= gridSize && when - lastTypedWhen < TWO_DIGIT_MILLIS) {
+            enter(combined); // Second digit of a two-digit number
+        } else {
+            enter(digit <= gridSize ? digit : current); // 0 clears the cell
+        }
+        lastTypedWhen = when;
+    }
+
+    // Method to put a number into the selected cell, 0 to clear it
+    private void enter(int num) {
+        int oldNum = model.get(selectedRow, selectedCol);
+        if (!editable || !model.set(selectedRow, selectedCol, num)) {
+            return; // Original numbers and unchanged cells need no work
+        }
+        repaintChangedPeers(selectedRow, selectedCol); // Conflicts in the row, column and subgrid may have changed
+        if (editListener != null) {
+            editListener.cellEdited(selectedRow, selectedCol, oldNum, num);
+        }
+    }
+
+    // Method to run a listener if there is one
+    private static void run(Runnable listener) {
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    // Method to move the selection to another cell
+    private void select(int row, int col) {
+        int oldRow = selectedRow;
+        int oldCol = selectedCol;
+        selectedRow = row;
+        selectedCol = col;
+        lastTypedWhen = 0; // A new cell starts a new number
+        repaintIfChanged(oldRow, oldCol);
+        repaintIfChanged(row, col);
+    }
+
+    // Method to repaint a cell and the cells of its row, column and subgrid whose look changed
+    private void repaintChangedPeers(int row, int col) {
+        for (int i = 0; i < gridSize; i++) {
+            repaintIfChanged(row, i);
+            repaintIfChanged(i, col);
+        }
+        int boxRow = row - row % subgridSize;
+        int boxCol = col - col % subgridSize;
+        for (int i = 0; i < gridSize; i++) {
+            repaintIfChanged(boxRow + i / subgridSize, boxCol + i % subgridSize);
+        }
+    }
+
+    // Method to repaint the rectangle of a cell if its look differs from when it was last painted
+    private void repaintIfChanged(int row, int col) {
+        if (lookOf(row, col) != paintedLooks[row * gridSize + col]) {
+            int cellSize = cellSize();
+            repaint(originX(cellSize) + col * cellSize, originY(cellSize) + row * cellSize, cellSize, cellSize);
+        }
+    }
+
+    // Method to work out how a cell should look from the model
+    private int lookOf(int row, int col) {
+        int look;
+        if (model.isOriginal(row, col)) {
+            look = LOOK_ORIGINAL;
+        } else if (model.get(row, col) == 0) {
+            look = LOOK_EMPTY;
+        } else if (!colorCodingEnabled) {
+            look = LOOK_PLAIN;
+        } else {
+            look = model.isCorrect(row, col) ? LOOK_CORRECT : LOOK_WRONG;
+        }
+        if (colorCodingEnabled && model.hasConflict(row, col)) {
+            look += LOOK_CONFLICT;
+        }
+        if (row == selectedRow && col == selectedCol && editable) {
+            look += LOOK_SELECTED;
+        }
+        return look;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        int cellSize = cellSize();
+        int x0 = originX(cellSize);
+        int y0 = originY(cellSize);
+        Rectangle clip = g.getClipBounds();
+        g.setColor(getBackground() != null ? getBackground() : Color.WHITE);
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        if (cellSize <= 0) {
+            return;
+        }
+        if (fontCellSize != cellSize) {
+            cellFont = new Font("Arial", Font.PLAIN, Math.max(8, cellSize * (gridSize > 9 ? 9 : 11) / 20)); // Only when resized
+            fontCellSize = cellSize;
+        }
+        g.setFont(cellFont);
+        FontMetrics metrics = g.getFontMetrics();
+        if (g instanceof Graphics2D) {
+            ((Graphics2D) g).setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        }
+
+        // Paint only the cells inside the clip
+        int firstCol = Math.max(0, Math.floorDiv(clip.x - x0, cellSize));
+        int lastCol = Math.min(gridSize - 1, Math.floorDiv(clip.x + clip.width - 1 - x0, cellSize));
+        int firstRow = Math.max(0, Math.floorDiv(clip.y - y0, cellSize));
+        int lastRow = Math.min(gridSize - 1, Math.floorDiv(clip.y + clip.height - 1 - y0, cellSize));
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                int look = lookOf(row, col);
+                paintedLooks[row * gridSize + col] = (byte) look;
+                int x = x0 + col * cellSize;
+                int y = y0 + row * cellSize;
+                if ((look & LOOK_SELECTED) != 0) {
+                    g.setColor(SELECTED_COLOR);
+                } else if ((look & LOOK_CONFLICT) != 0) {
+                    g.setColor(CONFLICT_COLOR); // Highlight duplicates in a row, column or subgrid
+                } else {
+                    g.setColor((look & 7) == LOOK_ORIGINAL ? originalBackground : editableBackground);
+                }
+                g.fillRect(x, y, cellSize, cellSize);
+                int num = model.get(row, col);
+                if (num != 0) {
+                    switch (look & 7) {
+                        case LOOK_ORIGINAL:
+                            g.setColor(Color.BLUE); // Original numbers are blue
+                            break;
+                        case LOOK_CORRECT:
+                            g.setColor(editable ? Color.GREEN : Color.BLUE); // Revealed solutions are blue
+                            break;
+                        case LOOK_WRONG:
+                            g.setColor(Color.RED);
+                            break;
+                        default:
+                            g.setColor(editable ? Color.BLACK : Color.BLUE);
+                            break;
+                    }
+                    String label = labels[num];
+                    g.drawString(label, x + (cellSize - metrics.stringWidth(label)) / 2,
+                            y + (cellSize - metrics.getHeight()) / 2 + metrics.getAscent());
+                }
+            }
+        }
+
+        // Paint the lines between cells, thicker between subgrids
+        g.setColor(Color.BLACK);
+        int size = cellSize * gridSize;
+        for (int i = 0; i <= gridSize; i++) {
+            int width = i % subgridSize == 0 ? THICK_LINE : THIN_LINE;
+            int offset = i == 0 ? 0 : i == gridSize ? width : width / 2; // Keep the outer lines inside the board
+            g.fillRect(x0 + i * cellSize - offset, y0, width, size); // Vertical line
+            g.fillRect(x0, y0 + i * cellSize - offset, size, width); // Horizontal line
+        }
+    }
+
+    // Method to get the size of a cell for the current component size
+    private int cellSize() {
+        Insets insets = getInsets();
+        int width = getWidth() - insets.left - insets.right - THICK_LINE;
+        int height = getHeight() - insets.top - insets.bottom - THICK_LINE;
+        return Math.min(width, height) / gridSize;
+    }
+
+    // Method to get the left edge of the board, which is centered in the component
+    private int originX(int cellSize) {
+        Insets insets = getInsets();
+        return insets.left + (getWidth() - insets.left - insets.right - cellSize * gridSize) / 2;
+    }
+
+    // Method to get the top edge of the board
+    private int originY(int cellSize) {
+        Insets insets = getInsets();
+        return insets.top + (getHeight() - insets.top - insets.bottom - cellSize * gridSize) / 2;
+    }
+}
@@ -0,0 +1,35 @@
+package mindgrid;
+
+// Interface for the engines used to fill grids and to check puzzles for a unique solution
+public interface SudokuSolver {
+    // Method to get the size of the subgrids of the grids this solver handles (3 for a 9x9 grid)
+    int getSubgridSize();
+
+    // Method to solve the grid in place, trying digits in the given order; returns false if there is no solution
+    boolean solve(int[][] grid, int[] digitOrder);
+
+    // Method to count the solutions of the grid without modifying it, stopping as soon as the limit is reached
+    int countSolutions(int[][] grid, int limit);
+
+    // Method to solve a board in place, trying digits in the given order; returns false if there is no solution.
+    // The clues of the board are left as they are.
+    default boolean solve(Board board, int[] digitOrder) {
+        int[][] grid = board.toArray();
+        if (!solve(grid, digitOrder)) {
+            return false;
+        }
+        board.load(grid);
+        return true;
+    }
+
+    // Method to count the solutions of a board without modifying it, stopping as soon as the limit is reached
+    default int countSolutions(Board board, int limit) {
+        return countSolutions(board.toArray(), limit);
+    }
+
+    // Method to get the total number of search nodes this solver has visited
+    long getNodeCount();
+
+    // Method to get the total number of search nodes that ended in a dead end
+    long getBacktrackCount();
+}